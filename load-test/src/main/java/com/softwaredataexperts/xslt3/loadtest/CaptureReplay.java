@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import com.softwaredataexperts.xslt3.model.XSLTransformationResult;
+import com.softwaredataexperts.xslt3.service.TrafficCaptureService;
+import com.softwaredataexperts.xslt3.util.XSLTransformUtil;
+import com.softwaredataexperts.xslt3.util.XslTransformRequestRecord;
+
+/**
+ * A class definition, implementing a command that re-runs captured XSL
+ * transformation requests in-process, with profiling enabled.
+ *
+ * Each captured request is run a number of warmup iterations, followed
+ * by a number of measured iterations. For every measured iteration,
+ * XSL transformation phase timings, CPU time and heap allocation are
+ * reported, and a stack sampling profile of all measured iterations is
+ * reported at the end. The capture time latency and phase timings are
+ * printed alongside, for comparison.
+ *
+ * Options : --captures=<a capture directory, or a directory of captures>
+ *           [--iterations=<count>] [--warmup=<count>]
+ *           [--sample-interval-ms=<ms>] [--top=<count>]
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class CaptureReplay {
+
+	private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	private String m_capturesDir = null;
+
+	private int m_iterations = 5;
+
+	private int m_warmupIterations = 2;
+
+	private long m_sampleIntervalMs = 5;
+
+	private int m_topCount = 20;
+
+	/**
+	 * Method definition, to run this command.
+	 *
+	 * @param args                               Command line arguments of the form --name=value
+	 * @throws Exception
+	 */
+	public void run(String[] args) throws Exception {
+		parseArgs(args);
+
+		File capturesDir = new File(m_capturesDir);
+		List<File> captureDirList = new ArrayList<File>();
+		if ((new File(capturesDir, XslTransformRequestRecord.REQUEST_PROPERTIES_FILE_NAME)).isFile()) {
+			captureDirList.add(capturesDir);
+		}
+		else {
+			File[] captureDirArr = capturesDir.listFiles();
+			if (captureDirArr != null) {
+				Arrays.sort(captureDirArr);
+				for (int idx = 0; idx < captureDirArr.length; idx++) {
+					if ((new File(captureDirArr[idx], XslTransformRequestRecord.REQUEST_PROPERTIES_FILE_NAME)).isFile()) {
+						captureDirList.add(captureDirArr[idx]);
+					}
+				}
+			}
+		}
+
+		if (captureDirList.size() == 0) {
+			throw new IllegalArgumentException("A directory " + capturesDir + ", doesn't have any captured XSL transformation requests.");
+		}
+
+		for (int idx = 0; idx < captureDirList.size(); idx++) {
+			replay(captureDirList.get(idx));
+		}
+	}
+
+	private void replay(File captureDir) throws Exception {
+		XslTransformRequestRecord requestRecord = XslTransformRequestRecord.read(captureDir);
+
+		System.out.println("==== " + captureDir);
+		System.out.println("Captured : latency " + requestRecord.getProperty(TrafficCaptureService.LATENCY_MS_KEY) + " ms, allocated "
+				                                     + requestRecord.getProperty(TrafficCaptureService.ALLOCATED_BYTES_KEY) + " bytes, "
+				                                     + "at " + requestRecord.getProperty(TrafficCaptureService.CAPTURED_AT_KEY));
+
+		for (int idx = 0; idx < m_warmupIterations; idx++) {
+			runOnce(requestRecord);
+		}
+
+		StackSamplingProfiler stackSamplingProfiler = new StackSamplingProfiler(Thread.currentThread(), m_sampleIntervalMs);
+		stackSamplingProfiler.start();
+		try {
+			for (int idx = 0; idx < m_iterations; idx++) {
+				long startAllocatedBytes = threadMXBean.getThreadAllocatedBytes((Thread.currentThread()).getId());
+				long startCpuTime = threadMXBean.getCurrentThreadCpuTime();
+				long startTime = System.nanoTime();
+
+				XSLTransformationResult xslTransformResult = runOnce(requestRecord);
+
+				long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+				long cpuMs = TimeUnit.NANOSECONDS.toMillis(threadMXBean.getCurrentThreadCpuTime() - startCpuTime);
+				long allocatedBytes = threadMXBean.getThreadAllocatedBytes((Thread.currentThread()).getId()) - startAllocatedBytes;
+
+				StringBuilder strBuilder = new StringBuilder();
+				strBuilder.append("Iteration ").append(idx + 1).append(" : ").append(elapsedMs).append(" ms, cpu ").append(cpuMs)
+				          .append(" ms, allocated ").append(allocatedBytes).append(" bytes, errors ")
+				          .append(xslTransformResult.getErrorCount());
+				Iterator<Map.Entry<String, Long>> phaseIter = ((xslTransformResult.getPhaseTimingMap()).entrySet()).iterator();
+				while (phaseIter.hasNext()) {
+					Map.Entry<String, Long> phaseEntry = phaseIter.next();
+					String capturedPhaseMs = requestRecord.getProperty(TrafficCaptureService.PHASE_KEY_PREFIX + phaseEntry.getKey() + ".ms");
+					strBuilder.append(", ").append(phaseEntry.getKey()).append(" ")
+					          .append(TimeUnit.NANOSECONDS.toMillis(phaseEntry.getValue())).append(" ms");
+					if (capturedPhaseMs != null) {
+						strBuilder.append(" (captured ").append(capturedPhaseMs).append(" ms)");
+					}
+				}
+
+				System.out.println(strBuilder.toString());
+			}
+		}
+		finally {
+			stackSamplingProfiler.stop();
+		}
+
+		System.out.println(stackSamplingProfiler.getReport(m_topCount));
+	}
+
+	private XSLTransformationResult runOnce(XslTransformRequestRecord requestRecord) throws Exception {
+		MultipartFile xslFile = new RecordedMultipartFile(XslTransformRequestRecord.XSL_FILE_KEY, requestRecord.getXslFileName(),
+				                                          requestRecord.getXslFileBytes());
+		Optional<MultipartFile> xmlFile = Optional.empty();
+		if (requestRecord.getXmlFileName() != null) {
+			xmlFile = Optional.of(new RecordedMultipartFile(XslTransformRequestRecord.XML_FILE_KEY, requestRecord.getXmlFileName(),
+					                                        requestRecord.getProperty(XslTransformRequestRecord.XML_FILE_CONTENT_TYPE_KEY),
+					                                        requestRecord.getXmlFileBytes()));
+		}
+		Optional<MultipartFile> auxFile = Optional.empty();
+		if (requestRecord.getAuxFileName() != null) {
+			auxFile = Optional.of(new RecordedMultipartFile(XslTransformRequestRecord.AUX_FILE_KEY, requestRecord.getAuxFileName(),
+					                                        requestRecord.getAuxFileBytes()));
+		}
+
+		XSLTransformUtil xslTransformUtil = new XSLTransformUtil();
+
+		return xslTransformUtil.xslTransform(xmlFile, xslFile, auxFile,
+				                             Optional.ofNullable(requestRecord.getProperty(XslTransformRequestRecord.INIT_TEMPLATE_KEY)),
+				                             Optional.ofNullable(requestRecord.getProperty(XslTransformRequestRecord.INIT_MODE_KEY)),
+				                             Optional.ofNullable(requestRecord.getProperty(XslTransformRequestRecord.ENABLE_ASSERT_KEY)),
+				                             Optional.ofNullable(requestRecord.getProperty(XslTransformRequestRecord.ENABLE_XSL_EVALUATE_KEY)));
+	}
+
+	private void parseArgs(String[] args) {
+		for (int idx = 0; idx < args.length; idx++) {
+			String arg = args[idx];
+			int eqIdx = arg.indexOf('=');
+			if (!arg.startsWith("--") || (eqIdx == -1)) {
+				throw new IllegalArgumentException("A replay argument " + arg + ", must have the form --name=value.");
+			}
+
+			String name = arg.substring(2, eqIdx);
+			String value = arg.substring(eqIdx + 1);
+			if ("captures".equals(name)) {
+				m_capturesDir = value;
+			}
+			else if ("iterations".equals(name)) {
+				m_iterations = Integer.parseInt(value);
+			}
+			else if ("warmup".equals(name)) {
+				m_warmupIterations = Integer.parseInt(value);
+			}
+			else if ("sample-interval-ms".equals(name)) {
+				m_sampleIntervalMs = Long.parseLong(value);
+			}
+			else if ("top".equals(name)) {
+				m_topCount = Integer.parseInt(value);
+			}
+			else {
+				throw new IllegalArgumentException("An unknown replay argument " + arg + ".");
+			}
+		}
+
+		if (m_capturesDir == null) {
+			throw new IllegalArgumentException("A replay argument --captures=<directory>, is required.");
+		}
+	}
+
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import com.softwaredataexperts.xslt3.util.Constants;
+import com.softwaredataexperts.xslt3.util.XslTransformRequestRecord;
+
+/**
+ * A class definition, implementing an open loop load generator for an
+ * XSL transformation api.
+ *
+ * Requests are started at a fixed rate, at intended start times that
+ * don't depend on how quickly earlier requests complete. A request
+ * that cannot be started at its intended time (because all sender
+ * threads are busy), waits within a queue and this waiting time is
+ * included within its latency. Thus, reported latencies are corrected
+ * for coordinated omission.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class LoadGenerator {
+
+	private static final int SIGNIFICANT_DIGITS = 3;
+
+	private final LoadTestOptions m_loadTestOptions;
+
+	private final TrafficCorpus m_trafficCorpus;
+
+	private final String m_targetUrl;
+
+	private final boolean m_embedded;
+
+	private final RestTemplate m_restTemplate;
+
+	/**
+	 * Latency histograms resize automatically, so that a very slow response or
+	 * a large coordinated omission correction is always recorded.
+	 */
+	private final Histogram m_latencyHistogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+	private final Histogram m_serviceTimeHistogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+
+	private final Map<String, AtomicLong> m_outcomeCountMap = new TreeMap<String, AtomicLong>();
+
+	private final AtomicLong m_errorCount = new AtomicLong();
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param loadTestOptions                    Load test configuration
+	 * @param trafficCorpus                      A traffic corpus to be replayed
+	 * @param targetUrl                          A URL of an XSL transformation api
+	 * @param embedded                           Whether the XSL transformation api runs
+	 *                                           within this JVM
+	 */
+	public LoadGenerator(LoadTestOptions loadTestOptions, TrafficCorpus trafficCorpus, String targetUrl, boolean embedded) {
+		this.m_loadTestOptions = loadTestOptions;
+		this.m_trafficCorpus = trafficCorpus;
+		this.m_targetUrl = targetUrl;
+		this.m_embedded = embedded;
+
+		m_restTemplate = new RestTemplate();
+		m_restTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+			@Override
+			public boolean hasError(ClientHttpResponse response) throws IOException {
+				return false;
+			}
+		});
+	}
+
+	/**
+	 * Method definition, to run a load test and to construct its report.
+	 *
+	 * @return                                   LoadTestReport object instance
+	 * @throws InterruptedException
+	 */
+	public LoadTestReport run() throws InterruptedException {
+		ExecutorService senderExecutor = Executors.newFixedThreadPool(m_loadTestOptions.getConcurrency());
+		Random random = new Random(m_loadTestOptions.getSeed());
+
+		long intervalNanos = (long)(TimeUnit.SECONDS.toNanos(1) / m_loadTestOptions.getRate());
+		long warmupNanos = TimeUnit.SECONDS.toNanos(m_loadTestOptions.getWarmupSeconds());
+		long totalNanos = warmupNanos + TimeUnit.SECONDS.toNanos(m_loadTestOptions.getDurationSeconds());
+
+		String startTime = (Instant.now()).toString();
+		long startNanoTime = System.nanoTime();
+		long measureStartNanoTime = startNanoTime + warmupNanos;
+		long[] gcCountsAtStart = null;
+		long[] gcTimesAtStart = null;
+		AtomicLong requestCount = new AtomicLong();
+
+		for (long requestIdx = 0; ; requestIdx++) {
+			final long intendedStartNanoTime = startNanoTime + (requestIdx * intervalNanos);
+			if ((intendedStartNanoTime - startNanoTime) >= totalNanos) {
+				break;
+			}
+
+			long waitNanos = intendedStartNanoTime - System.nanoTime();
+			while (waitNanos > 0) {
+				LockSupport.parkNanos(waitNanos);
+				waitNanos = intendedStartNanoTime - System.nanoTime();
+			}
+
+			final boolean isMeasured = (intendedStartNanoTime >= measureStartNanoTime);
+			if (isMeasured && (gcCountsAtStart == null)) {
+				resetPeakHeapUsage();
+				gcCountsAtStart = getGcCounts();
+				gcTimesAtStart = getGcTimes();
+			}
+
+			if (isMeasured) {
+				requestCount.incrementAndGet();
+			}
+
+			final XslTransformRequestRecord requestRecord = m_trafficCorpus.nextEntry(random);
+			senderExecutor.execute(() -> sendRequest(requestRecord, intendedStartNanoTime, isMeasured));
+		}
+
+		senderExecutor.shutdown();
+		senderExecutor.awaitTermination(1, TimeUnit.HOURS);
+		// Throughput is computed over the send window (i.e, the measured
+		// period during which requests were sent), and not over a period
+		// that also includes the time to drain outstanding requests.
+		long sendWindowNanos = TimeUnit.SECONDS.toNanos(m_loadTestOptions.getDurationSeconds());
+
+		if (gcCountsAtStart == null) {
+			gcCountsAtStart = getGcCounts();
+			gcTimesAtStart = getGcTimes();
+		}
+
+		LoadTestReport loadTestReport = new LoadTestReport();
+		loadTestReport.setLabel(m_loadTestOptions.getLabel());
+		loadTestReport.setStartTime(startTime);
+		loadTestReport.setTargetUrl(m_targetUrl);
+		loadTestReport.setEmbedded(m_embedded);
+		loadTestReport.setTargetRate(m_loadTestOptions.getRate());
+		loadTestReport.setConcurrency(m_loadTestOptions.getConcurrency());
+		loadTestReport.setDurationSeconds(m_loadTestOptions.getDurationSeconds());
+		loadTestReport.setWarmupSeconds(m_loadTestOptions.getWarmupSeconds());
+		loadTestReport.setCorpusEntryCount(m_trafficCorpus.size());
+		loadTestReport.setRequestCount(requestCount.get());
+		loadTestReport.setErrorCount(m_errorCount.get());
+		loadTestReport.setErrorRate((requestCount.get() > 0) ? ((double)m_errorCount.get() / requestCount.get()) : 0);
+		loadTestReport.setThroughput(m_latencyHistogram.getTotalCount() / (sendWindowNanos / 1e9));
+		loadTestReport.setLatency(LoadTestReport.LatencySummary.from(m_latencyHistogram));
+		loadTestReport.setServiceTime(LoadTestReport.LatencySummary.from(m_serviceTimeHistogram));
+
+		Map<String, Long> outcomeCounts = new TreeMap<String, Long>();
+		synchronized (m_outcomeCountMap) {
+			for (Map.Entry<String, AtomicLong> mapEntry : m_outcomeCountMap.entrySet()) {
+				outcomeCounts.put(mapEntry.getKey(), (mapEntry.getValue()).get());
+			}
+		}
+		loadTestReport.setOutcomeCounts(outcomeCounts);
+
+		loadTestReport.setJvmStatsScope(m_embedded ? "load generator and embedded api instance" : "load generator only");
+		List<GarbageCollectorMXBean> gcBeanList = ManagementFactory.getGarbageCollectorMXBeans();
+		long[] gcCountsAtEnd = getGcCounts();
+		long[] gcTimesAtEnd = getGcTimes();
+		List<LoadTestReport.GcSummary> gcSummaryList = new ArrayList<LoadTestReport.GcSummary>();
+		for (int idx = 0; idx < gcBeanList.size(); idx++) {
+			gcSummaryList.add(new LoadTestReport.GcSummary((gcBeanList.get(idx)).getName(), gcCountsAtEnd[idx] - gcCountsAtStart[idx],
+					                                                                        gcTimesAtEnd[idx] - gcTimesAtStart[idx]));
+		}
+		loadTestReport.setGcList(gcSummaryList);
+		loadTestReport.setPeakHeapUsedMb(getPeakHeapUsedBytes() / (1024 * 1024));
+
+		return loadTestReport;
+	}
+
+	/**
+	 * Method definition, to send one XSL transformation request and to record
+	 * its latency and outcome.
+	 */
+	private void sendRequest(XslTransformRequestRecord requestRecord, long intendedStartNanoTime, boolean isMeasured) {
+		long actualStartNanoTime = System.nanoTime();
+		String outcome = null;
+		boolean isError = true;
+		try {
+			ResponseEntity<byte[]> responseEntity = m_restTemplate.exchange(m_targetUrl, HttpMethod.POST, createRequestEntity(requestRecord),
+					                                                                                                byte[].class);
+			int statusCode = responseEntity.getStatusCodeValue();
+			outcome = String.valueOf(statusCode);
+			isError = ((statusCode < 200) || (statusCode >= 300));
+		}
+		catch (Exception ex) {
+			outcome = (ex.getClass()).getSimpleName();
+		}
+
+		long endNanoTime = System.nanoTime();
+
+		if (isMeasured) {
+			m_latencyHistogram.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanoTime - intendedStartNanoTime));
+			m_serviceTimeHistogram.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanoTime - actualStartNanoTime));
+			if (isError) {
+				m_errorCount.incrementAndGet();
+			}
+
+			synchronized (m_outcomeCountMap) {
+				AtomicLong outcomeCount = m_outcomeCountMap.get(outcome);
+				if (outcomeCount == null) {
+					outcomeCount = new AtomicLong();
+					m_outcomeCountMap.put(outcome, outcomeCount);
+				}
+				outcomeCount.incrementAndGet();
+			}
+		}
+	}
+
+	private HttpEntity<MultiValueMap<String, Object>> createRequestEntity(XslTransformRequestRecord requestRecord) {
+		MultiValueMap<String, Object> requestBody = new LinkedMultiValueMap<String, Object>();
+
+		requestBody.add(XslTransformRequestRecord.XSL_FILE_KEY, createFileResource(requestRecord.getXslFileName(), requestRecord.getXslFileBytes()));
+		if (requestRecord.getXmlFileName() != null) {
+			ByteArrayResource xmlFileResource = createFileResource(requestRecord.getXmlFileName(), requestRecord.getXmlFileBytes());
+			String xmlFileContentType = requestRecord.getProperty(XslTransformRequestRecord.XML_FILE_CONTENT_TYPE_KEY);
+			if (xmlFileContentType != null) {
+				HttpHeaders partHeaders = new HttpHeaders();
+				partHeaders.setContentType(MediaType.parseMediaType(xmlFileContentType));
+				requestBody.add(XslTransformRequestRecord.XML_FILE_KEY, new HttpEntity<ByteArrayResource>(xmlFileResource, partHeaders));
+			}
+			else {
+				requestBody.add(XslTransformRequestRecord.XML_FILE_KEY, xmlFileResource);
+			}
+		}
+		if (requestRecord.getAuxFileName() != null) {
+			requestBody.add(XslTransformRequestRecord.AUX_FILE_KEY, createFileResource(requestRecord.getAuxFileName(), requestRecord.getAuxFileBytes()));
+		}
+
+		String[] optionKeyArr = new String[] { XslTransformRequestRecord.INIT_TEMPLATE_KEY, XslTransformRequestRecord.INIT_MODE_KEY,
+				                               XslTransformRequestRecord.ENABLE_ASSERT_KEY, XslTransformRequestRecord.ENABLE_XSL_EVALUATE_KEY };
+		for (int idx = 0; idx < optionKeyArr.length; idx++) {
+			String optionValue = requestRecord.getProperty(optionKeyArr[idx]);
+			if (optionValue != null) {
+				requestBody.add(optionKeyArr[idx], optionValue);
+			}
+		}
+
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.setContentType(MediaType.MULTIPART_FORM_DATA);
+		if (m_loadTestOptions.getApiKey() != null) {
+			requestHeaders.set(Constants.API_KEY_HEADER, m_loadTestOptions.getApiKey());
+		}
+
+		return new HttpEntity<MultiValueMap<String, Object>>(requestBody, requestHeaders);
+	}
+
+	private ByteArrayResource createFileResource(final String fileName, byte[] fileBytes) {
+		return new ByteArrayResource(fileBytes) {
+			@Override
+			public String getFilename() {
+				return fileName;
+			}
+		};
+	}
+
+	private long[] getGcCounts() {
+		List<GarbageCollectorMXBean> gcBeanList = ManagementFactory.getGarbageCollectorMXBeans();
+		long[] gcCountArr = new long[gcBeanList.size()];
+		for (int idx = 0; idx < gcBeanList.size(); idx++) {
+			gcCountArr[idx] = (gcBeanList.get(idx)).getCollectionCount();
+		}
+
+		return gcCountArr;
+	}
+
+	private long[] getGcTimes() {
+		List<GarbageCollectorMXBean> gcBeanList = ManagementFactory.getGarbageCollectorMXBeans();
+		long[] gcTimeArr = new long[gcBeanList.size()];
+		for (int idx = 0; idx < gcBeanList.size(); idx++) {
+			gcTimeArr[idx] = (gcBeanList.get(idx)).getCollectionTime();
+		}
+
+		return gcTimeArr;
+	}
+
+	private void resetPeakHeapUsage() {
+		List<MemoryPoolMXBean> memoryPoolList = ManagementFactory.getMemoryPoolMXBeans();
+		for (int idx = 0; idx < memoryPoolList.size(); idx++) {
+			if ((memoryPoolList.get(idx)).getType() == MemoryType.HEAP) {
+				(memoryPoolList.get(idx)).resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to get the sum of peak usages of heap memory pools.
+	 * Since pools don't peak at the same time, this is an upper bound of the
+	 * peak heap usage.
+	 */
+	private long getPeakHeapUsedBytes() {
+		long peakUsedBytes = 0;
+		List<MemoryPoolMXBean> memoryPoolList = ManagementFactory.getMemoryPoolMXBeans();
+		for (int idx = 0; idx < memoryPoolList.size(); idx++) {
+			if ((memoryPoolList.get(idx)).getType() == MemoryType.HEAP) {
+				peakUsedBytes += ((memoryPoolList.get(idx)).getPeakUsage()).getUsed();
+			}
+		}
+
+		return peakUsedBytes;
+	}
+
+}
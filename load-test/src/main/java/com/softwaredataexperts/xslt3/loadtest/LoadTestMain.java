@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.softwaredataexperts.xslt3.XalanXsl3Application;
+
+/**
+ * A class definition, that serves as an entry point of the XSL
+ * transformation api load test harness.
+ *
+ * Usage (after building this project, and the api project with
+ * "mvn install"):
+ *
+ *   java -jar xalan_xslt3_load_test-0.0.1-SNAPSHOT.jar --corpus=<directory>
+ *        [--target-url=<url>] [--rate=<requests per second>]
+ *        [--duration=<seconds>] [--warmup=<seconds>]
+ *        [--concurrency=<max outstanding requests>]
+ *        [--report=<json file>] [--label=<release label>] [--seed=<long>]
+ *        [--api-key=<key>]
+ *
+ * When --target-url is not specified, an api instance is started within
+ * this JVM on a random free port. The embedded api instance maps the
+ * load test's api key (or "load-test", when --api-key is not specified)
+ * to a client whose quota admits --concurrency requests, so that the load
+ * test measures the api's capacity and not the default client quota.
+ *
+ * When the first argument is "replay", remaining arguments are passed
+ * to CaptureReplay, which re-runs captured XSL transformation requests
+ * in-process with profiling enabled.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class LoadTestMain {
+
+	private static final String EMBEDDED_API_KEY = "load-test";
+
+	private static final String EMBEDDED_CLIENT_ID = "load-test";
+
+	public static void main(String[] args) throws Exception {
+		if ((args.length > 0) && "replay".equals(args[0])) {
+			(new CaptureReplay()).run(Arrays.copyOfRange(args, 1, args.length));
+			
+			return;
+		}
+		
+		LoadTestOptions loadTestOptions = LoadTestOptions.parse(args);
+
+		// HttpURLConnection keeps at most 'http.maxConnections' idle connections
+		// per host, which otherwise causes new connections during a load test.
+		// This is read once, when the first connection is opened.
+		System.setProperty("http.maxConnections", String.valueOf(loadTestOptions.getConcurrency()));
+
+		TrafficCorpus trafficCorpus = TrafficCorpus.read(new File(loadTestOptions.getCorpusDir()));
+
+		ConfigurableApplicationContext appContext = null;
+		String targetUrl = loadTestOptions.getTargetUrl();
+		boolean isEmbedded = (targetUrl == null);
+		if (isEmbedded) {
+			appContext = SpringApplication.run(XalanXsl3Application.class, getEmbeddedArgs(loadTestOptions));
+			int serverPort = (((ServletWebServerApplicationContext)appContext).getWebServer()).getPort();
+			String contextPath = (appContext.getEnvironment()).getProperty("server.servlet.context-path", "");
+			targetUrl = "http://localhost:" + serverPort + contextPath + "/xsl3/transform";
+		}
+
+		try {
+			LoadGenerator loadGenerator = new LoadGenerator(loadTestOptions, trafficCorpus, targetUrl, isEmbedded);
+			LoadTestReport loadTestReport = loadGenerator.run();
+
+			ObjectMapper objectMapper = new ObjectMapper();
+			objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+			objectMapper.writeValue(new File(loadTestOptions.getReportFile()), loadTestReport);
+
+			LoadTestReport.LatencySummary latencySummary = loadTestReport.getLatency();
+			System.out.println("Requests : " + loadTestReport.getRequestCount() + ", errors : " + loadTestReport.getErrorCount()
+					                                                            + ", throughput : " + String.format("%.1f", loadTestReport.getThroughput()) + " req/s");
+			System.out.println("Latency (ms) : p50 " + latencySummary.getP50Ms() + ", p90 " + latencySummary.getP90Ms()
+					                                                            + ", p99 " + latencySummary.getP99Ms() + ", p99.9 " + latencySummary.getP999Ms()
+					                                                            + ", max " + latencySummary.getMaxMs());
+			System.out.println("Report : " + loadTestOptions.getReportFile());
+		}
+		finally {
+			if (appContext != null) {
+				appContext.close();
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to get the arguments of an embedded api instance.
+	 * These map the load test's api key to a client, and set this client's
+	 * scheduler quota as per the load test's max outstanding requests.
+	 *
+	 * @param loadTestOptions                    Load test options
+	 * @return                                   Arguments of an embedded api instance
+	 */
+	private static String[] getEmbeddedArgs(LoadTestOptions loadTestOptions) {
+		String apiKey = loadTestOptions.getApiKey();
+		if (apiKey == null) {
+			apiKey = EMBEDDED_API_KEY;
+			loadTestOptions.setApiKey(apiKey);
+		}
+		int concurrency = loadTestOptions.getConcurrency();
+
+		return new String[] { "--server.port=0",
+				              "--xslt3.scheduler.api-keys." + apiKey + "=" + EMBEDDED_CLIENT_ID,
+				              "--xslt3.scheduler.clients." + EMBEDDED_CLIENT_ID + ".max-concurrency=" + concurrency,
+				              "--xslt3.scheduler.max-queued-per-client=" + concurrency };
+	}
+
+}
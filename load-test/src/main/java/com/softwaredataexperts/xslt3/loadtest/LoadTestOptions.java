@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+/**
+ * A class definition, that specifies the configuration of one load
+ * test run. Options are supplied as command line arguments of the form
+ * --name=value.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class LoadTestOptions {
+
+	/**
+	 * A directory, having one sub directory per traffic corpus entry.
+	 */
+	private String m_corpusDir = null;
+
+	/**
+	 * A URL of an XSL transformation api to be load tested. When this
+	 * value is null, an embedded api instance is started.
+	 */
+	private String m_targetUrl = null;
+
+	/**
+	 * Number of requests per second, that are started irrespective of
+	 * how quickly earlier requests complete (i.e, an open loop rate).
+	 */
+	private double m_rate = 10;
+
+	private long m_durationSeconds = 60;
+
+	/**
+	 * Number of initial seconds, whose requests are sent but are not
+	 * included within the report.
+	 */
+	private long m_warmupSeconds = 10;
+
+	/**
+	 * Max number of requests, that may be outstanding at once.
+	 */
+	private int m_concurrency = 32;
+
+	private String m_reportFile = "load-test-report.json";
+
+	/**
+	 * A label of this load test run (for example, a release version),
+	 * used to compare reports of several runs.
+	 */
+	private String m_label = "";
+
+	private long m_seed = 1;
+
+	/**
+	 * An api key sent with each request (as the request header X-Api-Key),
+	 * which selects the client quota that an XSL transformation api applies
+	 * to this load test. When this is null, requests are scheduled as the
+	 * anonymous client.
+	 */
+	private String m_apiKey = null;
+
+	/**
+	 * Method definition, to construct load test options from command
+	 * line arguments.
+	 *
+	 * @param args                               Command line arguments
+	 * @return                                   LoadTestOptions object instance
+	 */
+	public static LoadTestOptions parse(String[] args) {
+		LoadTestOptions loadTestOptions = new LoadTestOptions();
+
+		for (int idx = 0; idx < args.length; idx++) {
+			String arg = args[idx];
+			int eqIdx = arg.indexOf('=');
+			if (!arg.startsWith("--") || (eqIdx == -1)) {
+				throw new IllegalArgumentException("A load test argument " + arg + ", must have the form --name=value.");
+			}
+
+			String name = arg.substring(2, eqIdx);
+			String value = arg.substring(eqIdx + 1);
+			if ("corpus".equals(name)) {
+				loadTestOptions.m_corpusDir = value;
+			}
+			else if ("target-url".equals(name)) {
+				loadTestOptions.m_targetUrl = value;
+			}
+			else if ("rate".equals(name)) {
+				loadTestOptions.m_rate = Double.parseDouble(value);
+			}
+			else if ("duration".equals(name)) {
+				loadTestOptions.m_durationSeconds = Long.parseLong(value);
+			}
+			else if ("warmup".equals(name)) {
+				loadTestOptions.m_warmupSeconds = Long.parseLong(value);
+			}
+			else if ("concurrency".equals(name)) {
+				loadTestOptions.m_concurrency = Integer.parseInt(value);
+			}
+			else if ("report".equals(name)) {
+				loadTestOptions.m_reportFile = value;
+			}
+			else if ("label".equals(name)) {
+				loadTestOptions.m_label = value;
+			}
+			else if ("seed".equals(name)) {
+				loadTestOptions.m_seed = Long.parseLong(value);
+			}
+			else if ("api-key".equals(name)) {
+				loadTestOptions.m_apiKey = value;
+			}
+			else {
+				throw new IllegalArgumentException("An unknown load test argument " + arg + ".");
+			}
+		}
+
+		if (loadTestOptions.m_corpusDir == null) {
+			throw new IllegalArgumentException("A load test argument --corpus=<directory>, is required.");
+		}
+
+		if ((loadTestOptions.m_rate <= 0) || (loadTestOptions.m_concurrency <= 0) || (loadTestOptions.m_durationSeconds <= 0)) {
+			throw new IllegalArgumentException("Load test arguments --rate, --concurrency and --duration, must be positive.");
+		}
+
+		return loadTestOptions;
+	}
+
+	public String getCorpusDir() {
+		return m_corpusDir;
+	}
+
+	public String getTargetUrl() {
+		return m_targetUrl;
+	}
+
+	public double getRate() {
+		return m_rate;
+	}
+
+	public long getDurationSeconds() {
+		return m_durationSeconds;
+	}
+
+	public long getWarmupSeconds() {
+		return m_warmupSeconds;
+	}
+
+	public int getConcurrency() {
+		return m_concurrency;
+	}
+
+	public String getReportFile() {
+		return m_reportFile;
+	}
+
+	public String getLabel() {
+		return m_label;
+	}
+
+	public long getSeed() {
+		return m_seed;
+	}
+
+	public String getApiKey() {
+		return m_apiKey;
+	}
+
+	public void setApiKey(String apiKey) {
+		this.m_apiKey = apiKey;
+	}
+
+}
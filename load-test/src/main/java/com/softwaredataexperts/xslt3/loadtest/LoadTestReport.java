@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * A class definition, that encapsulates the result of one load test
+ * run. An object of this class is written as a JSON document, so that
+ * reports of several runs (for example, of different releases) can be
+ * compared.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class LoadTestReport {
+
+	private String m_label = null;
+
+	private String m_startTime = null;
+
+	private String m_targetUrl = null;
+
+	private boolean m_embedded = false;
+
+	private double m_targetRate = 0;
+
+	private int m_concurrency = 0;
+
+	private long m_durationSeconds = 0;
+
+	private long m_warmupSeconds = 0;
+
+	private int m_corpusEntryCount = 0;
+
+	private long m_requestCount = 0;
+
+	private long m_errorCount = 0;
+
+	private double m_errorRate = 0;
+
+	/**
+	 * Number of completed measured requests, per second of the send window
+	 * (i.e, the post warmup period during which requests were sent).
+	 */
+	private double m_throughput = 0;
+
+	/**
+	 * Number of responses, keyed by HTTP status code. Requests that failed
+	 * without an HTTP response, are keyed by an exception class name.
+	 */
+	private Map<String, Long> m_outcomeCounts = new TreeMap<String, Long>();
+
+	/**
+	 * Latency measured from each request's intended start time, so that
+	 * this latency is corrected for coordinated omission.
+	 */
+	private LatencySummary m_latency = null;
+
+	/**
+	 * Latency measured from each request's actual start time.
+	 */
+	private LatencySummary m_serviceTime = null;
+
+	/**
+	 * Whether GC and heap statistics include the XSL transformation api's
+	 * JVM (i.e, an embedded api instance), or only the load generator's JVM.
+	 */
+	private String m_jvmStatsScope = null;
+
+	private List<GcSummary> m_gcList = new ArrayList<GcSummary>();
+
+	private long m_peakHeapUsedMb = 0;
+
+	public String getLabel() {
+		return m_label;
+	}
+
+	public void setLabel(String label) {
+		this.m_label = label;
+	}
+
+	public String getStartTime() {
+		return m_startTime;
+	}
+
+	public void setStartTime(String startTime) {
+		this.m_startTime = startTime;
+	}
+
+	public String getTargetUrl() {
+		return m_targetUrl;
+	}
+
+	public void setTargetUrl(String targetUrl) {
+		this.m_targetUrl = targetUrl;
+	}
+
+	public boolean isEmbedded() {
+		return m_embedded;
+	}
+
+	public void setEmbedded(boolean embedded) {
+		this.m_embedded = embedded;
+	}
+
+	public double getTargetRate() {
+		return m_targetRate;
+	}
+
+	public void setTargetRate(double targetRate) {
+		this.m_targetRate = targetRate;
+	}
+
+	public int getConcurrency() {
+		return m_concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		this.m_concurrency = concurrency;
+	}
+
+	public long getDurationSeconds() {
+		return m_durationSeconds;
+	}
+
+	public void setDurationSeconds(long durationSeconds) {
+		this.m_durationSeconds = durationSeconds;
+	}
+
+	public long getWarmupSeconds() {
+		return m_warmupSeconds;
+	}
+
+	public void setWarmupSeconds(long warmupSeconds) {
+		this.m_warmupSeconds = warmupSeconds;
+	}
+
+	public int getCorpusEntryCount() {
+		return m_corpusEntryCount;
+	}
+
+	public void setCorpusEntryCount(int corpusEntryCount) {
+		this.m_corpusEntryCount = corpusEntryCount;
+	}
+
+	public long getRequestCount() {
+		return m_requestCount;
+	}
+
+	public void setRequestCount(long requestCount) {
+		this.m_requestCount = requestCount;
+	}
+
+	public long getErrorCount() {
+		return m_errorCount;
+	}
+
+	public void setErrorCount(long errorCount) {
+		this.m_errorCount = errorCount;
+	}
+
+	public double getErrorRate() {
+		return m_errorRate;
+	}
+
+	public void setErrorRate(double errorRate) {
+		this.m_errorRate = errorRate;
+	}
+
+	public double getThroughput() {
+		return m_throughput;
+	}
+
+	public void setThroughput(double throughput) {
+		this.m_throughput = throughput;
+	}
+
+	public Map<String, Long> getOutcomeCounts() {
+		return m_outcomeCounts;
+	}
+
+	public void setOutcomeCounts(Map<String, Long> outcomeCounts) {
+		this.m_outcomeCounts = outcomeCounts;
+	}
+
+	public LatencySummary getLatency() {
+		return m_latency;
+	}
+
+	public void setLatency(LatencySummary latency) {
+		this.m_latency = latency;
+	}
+
+	public LatencySummary getServiceTime() {
+		return m_serviceTime;
+	}
+
+	public void setServiceTime(LatencySummary serviceTime) {
+		this.m_serviceTime = serviceTime;
+	}
+
+	public String getJvmStatsScope() {
+		return m_jvmStatsScope;
+	}
+
+	public void setJvmStatsScope(String jvmStatsScope) {
+		this.m_jvmStatsScope = jvmStatsScope;
+	}
+
+	public List<GcSummary> getGcList() {
+		return m_gcList;
+	}
+
+	public void setGcList(List<GcSummary> gcList) {
+		this.m_gcList = gcList;
+	}
+
+	public long getPeakHeapUsedMb() {
+		return m_peakHeapUsedMb;
+	}
+
+	public void setPeakHeapUsedMb(long peakHeapUsedMb) {
+		this.m_peakHeapUsedMb = peakHeapUsedMb;
+	}
+
+	/**
+	 * A class definition, that encapsulates a latency distribution in
+	 * milliseconds.
+	 */
+	public static class LatencySummary {
+
+		private long m_count = 0;
+
+		private double m_meanMs = 0;
+
+		private double m_p50Ms = 0;
+
+		private double m_p90Ms = 0;
+
+		private double m_p99Ms = 0;
+
+		private double m_p999Ms = 0;
+
+		private double m_maxMs = 0;
+
+		/**
+		 * Method definition, to construct a latency summary from a histogram
+		 * of latency values recorded in microseconds.
+		 *
+		 * @param histogram                      A histogram of latency values
+		 * @return                               LatencySummary object instance
+		 */
+		public static LatencySummary from(Histogram histogram) {
+			LatencySummary latencySummary = new LatencySummary();
+			latencySummary.m_count = histogram.getTotalCount();
+			latencySummary.m_meanMs = histogram.getMean() / 1000;
+			latencySummary.m_p50Ms = histogram.getValueAtPercentile(50) / 1000.0;
+			latencySummary.m_p90Ms = histogram.getValueAtPercentile(90) / 1000.0;
+			latencySummary.m_p99Ms = histogram.getValueAtPercentile(99) / 1000.0;
+			latencySummary.m_p999Ms = histogram.getValueAtPercentile(99.9) / 1000.0;
+			latencySummary.m_maxMs = histogram.getMaxValue() / 1000.0;
+
+			return latencySummary;
+		}
+
+		public long getCount() {
+			return m_count;
+		}
+
+		public double getMeanMs() {
+			return m_meanMs;
+		}
+
+		public double getP50Ms() {
+			return m_p50Ms;
+		}
+
+		public double getP90Ms() {
+			return m_p90Ms;
+		}
+
+		public double getP99Ms() {
+			return m_p99Ms;
+		}
+
+		public double getP999Ms() {
+			return m_p999Ms;
+		}
+
+		public double getMaxMs() {
+			return m_maxMs;
+		}
+	}
+
+	/**
+	 * A class definition, that encapsulates activity of one garbage
+	 * collector during the measured period.
+	 */
+	public static class GcSummary {
+
+		private String m_name = null;
+
+		private long m_collectionCount = 0;
+
+		private long m_collectionTimeMs = 0;
+
+		public GcSummary(String name, long collectionCount, long collectionTimeMs) {
+			this.m_name = name;
+			this.m_collectionCount = collectionCount;
+			this.m_collectionTimeMs = collectionTimeMs;
+		}
+
+		public String getName() {
+			return m_name;
+		}
+
+		public long getCollectionCount() {
+			return m_collectionCount;
+		}
+
+		public long getCollectionTimeMs() {
+			return m_collectionTimeMs;
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * A class definition, of a MultipartFile whose content is a recorded
+ * uploaded file, so that a recorded XSL transformation request can be
+ * run in-process.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class RecordedMultipartFile implements MultipartFile {
+
+	private final String m_name;
+
+	private final String m_originalFilename;
+
+	private final String m_contentType;
+
+	private final byte[] m_content;
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param name                               An api request parameter name
+	 * @param originalFilename                   An uploaded file's original name
+	 * @param content                            An uploaded file's content
+	 */
+	public RecordedMultipartFile(String name, String originalFilename, byte[] content) {
+		this(name, originalFilename, null, content);
+	}
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param name                               An api request parameter name
+	 * @param originalFilename                   An uploaded file's original name
+	 * @param contentType                        An uploaded file's media type, or null
+	 * @param content                            An uploaded file's content
+	 */
+	public RecordedMultipartFile(String name, String originalFilename, String contentType, byte[] content) {
+		this.m_name = name;
+		this.m_originalFilename = originalFilename;
+		this.m_contentType = contentType;
+		this.m_content = content;
+	}
+
+	@Override
+	public String getName() {
+		return m_name;
+	}
+
+	@Override
+	public String getOriginalFilename() {
+		return m_originalFilename;
+	}
+
+	@Override
+	public String getContentType() {
+		return m_contentType;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (m_content.length == 0);
+	}
+
+	@Override
+	public long getSize() {
+		return m_content.length;
+	}
+
+	@Override
+	public byte[] getBytes() throws IOException {
+		return m_content;
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return new ByteArrayInputStream(m_content);
+	}
+
+	@Override
+	public void transferTo(File dest) throws IOException, IllegalStateException {
+		Files.write(dest.toPath(), m_content);
+	}
+
+}
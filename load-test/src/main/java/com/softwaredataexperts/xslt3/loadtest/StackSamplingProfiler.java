@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A class definition, implementing a simple sampling profiler of one
+ * thread. Stack traces of the profiled thread are sampled at a fixed
+ * interval, and the number of samples in which each method is running
+ * (self samples) or is present on the stack (total samples) is counted.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class StackSamplingProfiler implements Runnable {
+
+	private final Thread m_profiledThread;
+
+	private final long m_sampleIntervalMs;
+
+	private final Map<String, Integer> m_selfCountMap = new HashMap<String, Integer>();
+
+	private final Map<String, Integer> m_totalCountMap = new HashMap<String, Integer>();
+
+	private int m_sampleCount = 0;
+
+	private volatile boolean m_running = true;
+
+	private Thread m_samplerThread = null;
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param profiledThread                     A thread to be profiled
+	 * @param sampleIntervalMs                   An interval between stack trace samples
+	 */
+	public StackSamplingProfiler(Thread profiledThread, long sampleIntervalMs) {
+		this.m_profiledThread = profiledThread;
+		this.m_sampleIntervalMs = sampleIntervalMs;
+	}
+
+	/**
+	 * Method definition, to start sampling.
+	 */
+	public void start() {
+		m_samplerThread = new Thread(this, "xsl3-stack-sampler");
+		m_samplerThread.setDaemon(true);
+		m_samplerThread.start();
+	}
+
+	/**
+	 * Method definition, to stop sampling, and to wait until the sampler
+	 * thread has finished.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void stop() throws InterruptedException {
+		m_running = false;
+		m_samplerThread.join();
+	}
+
+	@Override
+	public void run() {
+		while (m_running) {
+			StackTraceElement[] stackTraceArr = m_profiledThread.getStackTrace();
+			if (stackTraceArr.length > 0) {
+				synchronized (this) {
+					m_sampleCount++;
+					increment(m_selfCountMap, getMethodName(stackTraceArr[0]));
+
+					Set<String> methodNameSet = new HashSet<String>();
+					for (int idx = 0; idx < stackTraceArr.length; idx++) {
+						String methodName = getMethodName(stackTraceArr[idx]);
+						if (methodNameSet.add(methodName)) {
+							increment(m_totalCountMap, methodName);
+						}
+					}
+				}
+			}
+
+			try {
+				Thread.sleep(m_sampleIntervalMs);
+			}
+			catch (InterruptedException ex) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to get a text report of methods having the most
+	 * self and total samples.
+	 *
+	 * @param topCount                           Number of methods listed, in each section
+	 * @return                                   A text report
+	 */
+	public synchronized String getReport(int topCount) {
+		StringBuilder strBuilder = new StringBuilder();
+		strBuilder.append("Samples : ").append(m_sampleCount).append(" (interval ").append(m_sampleIntervalMs).append(" ms)\n");
+		appendSection(strBuilder, "Top methods by self samples", m_selfCountMap, topCount);
+		appendSection(strBuilder, "Top methods by total samples", m_totalCountMap, topCount);
+
+		return strBuilder.toString();
+	}
+
+	private void appendSection(StringBuilder strBuilder, String title, Map<String, Integer> countMap, int topCount) {
+		List<Map.Entry<String, Integer>> entryList = new ArrayList<Map.Entry<String, Integer>>(countMap.entrySet());
+		Collections.sort(entryList, (entry1, entry2) -> (entry2.getValue()).compareTo(entry1.getValue()));
+
+		strBuilder.append(title).append(" :\n");
+		for (int idx = 0; (idx < entryList.size()) && (idx < topCount); idx++) {
+			Map.Entry<String, Integer> mapEntry = entryList.get(idx);
+			double percent = (m_sampleCount > 0) ? ((100.0 * mapEntry.getValue()) / m_sampleCount) : 0;
+			strBuilder.append(String.format("  %6.2f%%  %s%n", percent, mapEntry.getKey()));
+		}
+	}
+
+	private static String getMethodName(StackTraceElement stackTraceElem) {
+		return stackTraceElem.getClassName() + "." + stackTraceElem.getMethodName();
+	}
+
+	private static void increment(Map<String, Integer> countMap, String key) {
+		Integer count = countMap.get(key);
+		countMap.put(key, (count == null) ? 1 : (count + 1));
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import com.softwaredataexperts.xslt3.util.XslTransformRequestRecord;
+
+/**
+ * A class definition, that holds a corpus of recorded XSL transformation
+ * requests, to be replayed by a load test.
+ *
+ * A corpus directory has one sub directory per corpus entry, in the
+ * layout read by XslTransformRequestRecord. An entry's optional property
+ * "weight" within its request.properties file, specifies how often that
+ * entry is replayed relative to other entries (default 1).
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class TrafficCorpus {
+
+	public static final String WEIGHT_KEY = "weight";
+
+	private List<XslTransformRequestRecord> m_entryList = new ArrayList<XslTransformRequestRecord>();
+
+	/**
+	 * Cumulative weights of corpus entries, in the same order as m_entryList.
+	 */
+	private List<Double> m_cumulativeWeightList = new ArrayList<Double>();
+
+	private double m_totalWeight = 0;
+
+	/**
+	 * Method definition, to read a traffic corpus from a directory.
+	 *
+	 * @param corpusDir                          A traffic corpus directory
+	 * @return                                   TrafficCorpus object instance
+	 * @throws IOException
+	 */
+	public static TrafficCorpus read(File corpusDir) throws IOException {
+		File[] entryDirArr = corpusDir.listFiles();
+		if (entryDirArr == null) {
+			throw new IOException("A traffic corpus directory " + corpusDir + ", cannot be read.");
+		}
+
+		Arrays.sort(entryDirArr);
+
+		TrafficCorpus trafficCorpus = new TrafficCorpus();
+		for (int idx = 0; idx < entryDirArr.length; idx++) {
+			File entryDir = entryDirArr[idx];
+			if ((new File(entryDir, XslTransformRequestRecord.REQUEST_PROPERTIES_FILE_NAME)).isFile()) {
+				XslTransformRequestRecord requestRecord = XslTransformRequestRecord.read(entryDir);
+				String weightStr = requestRecord.getProperty(WEIGHT_KEY);
+				double weight = (weightStr != null) ? Double.parseDouble(weightStr) : 1;
+				if (weight > 0) {
+					trafficCorpus.m_totalWeight += weight;
+					(trafficCorpus.m_entryList).add(requestRecord);
+					(trafficCorpus.m_cumulativeWeightList).add(trafficCorpus.m_totalWeight);
+				}
+			}
+		}
+
+		if ((trafficCorpus.m_entryList).size() == 0) {
+			throw new IOException("A traffic corpus directory " + corpusDir + ", doesn't have any corpus entries.");
+		}
+
+		return trafficCorpus;
+	}
+
+	/**
+	 * Method definition, to select a corpus entry randomly, in proportion to
+	 * corpus entry weights.
+	 *
+	 * @param random                             A random number generator
+	 * @return                                   XslTransformRequestRecord object instance
+	 */
+	public XslTransformRequestRecord nextEntry(Random random) {
+		double value = random.nextDouble() * m_totalWeight;
+		for (int idx = 0; idx < m_cumulativeWeightList.size(); idx++) {
+			if (value < m_cumulativeWeightList.get(idx)) {
+				return m_entryList.get(idx);
+			}
+		}
+
+		return m_entryList.get(m_entryList.size() - 1);
+	}
+
+	public int size() {
+		return m_entryList.size();
+	}
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * A class definition, that specifies XSL transformation adaptive
+ * concurrency limiter configuration. These values are read from
+ * application properties having prefix "xslt3.limiter".
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Component
+@ConfigurationProperties(prefix = "xslt3.limiter")
+public class AdaptiveLimiterProperties {
+
+	/**
+	 * An initial limit, that is the total number of cost class worker
+	 * threads by default, so that the limit doesn't admit fewer XSL
+	 * transformations than the worker pools can run, until XSL
+	 * transformation latency or heap usage causes it to be decreased.
+	 */
+	private int initialLimit = 10;
+
+	private int minLimit = 1;
+
+	private int maxLimit = 64;
+
+	/**
+	 * An XSL transformation latency greater than this multiple of the
+	 * smoothed long term latency of the same XSL stylesheet with a similar
+	 * input size, causes the limit to be decreased.
+	 */
+	private double latencyTolerance = 2.0;
+
+	/**
+	 * A factor by which the limit is multiplied, when the limit is
+	 * decreased.
+	 */
+	private double backoffRatio = 0.75;
+
+	/**
+	 * Minimum time in milliseconds, between two consecutive limit
+	 * decreases.
+	 */
+	private long decreaseCooldownMs = 1000;
+
+	/**
+	 * An old generation heap usage fraction, above which the limit is
+	 * decreased.
+	 */
+	private double oldGenHighThreshold = 0.75;
+
+	/**
+	 * An old generation heap usage fraction, above which new XSL
+	 * transformations wait while any XSL transformation is running.
+	 */
+	private double oldGenCriticalThreshold = 0.90;
+
+	/**
+	 * A stop the world garbage collection pause in milliseconds, longer
+	 * than which causes the limit to be decreased.
+	 */
+	private long gcPauseThresholdMs = 500;
+
+	/**
+	 * Number of most recent limit decisions, that are retained.
+	 */
+	private int decisionHistorySize = 100;
+
+	/**
+	 * Max number of latency baselines (one for each XSL stylesheet and
+	 * input size class), that are remembered. When this number is exceeded,
+	 * the least recently used latency baseline is forgotten.
+	 */
+	private int maxTrackedStylesheets = 10000;
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public void setInitialLimit(int initialLimit) {
+		this.initialLimit = initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public double getLatencyTolerance() {
+		return latencyTolerance;
+	}
+
+	public void setLatencyTolerance(double latencyTolerance) {
+		this.latencyTolerance = latencyTolerance;
+	}
+
+	public double getBackoffRatio() {
+		return backoffRatio;
+	}
+
+	public void setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+	}
+
+	public long getDecreaseCooldownMs() {
+		return decreaseCooldownMs;
+	}
+
+	public void setDecreaseCooldownMs(long decreaseCooldownMs) {
+		this.decreaseCooldownMs = decreaseCooldownMs;
+	}
+
+	public double getOldGenHighThreshold() {
+		return oldGenHighThreshold;
+	}
+
+	public void setOldGenHighThreshold(double oldGenHighThreshold) {
+		this.oldGenHighThreshold = oldGenHighThreshold;
+	}
+
+	public double getOldGenCriticalThreshold() {
+		return oldGenCriticalThreshold;
+	}
+
+	public void setOldGenCriticalThreshold(double oldGenCriticalThreshold) {
+		this.oldGenCriticalThreshold = oldGenCriticalThreshold;
+	}
+
+	public long getGcPauseThresholdMs() {
+		return gcPauseThresholdMs;
+	}
+
+	public void setGcPauseThresholdMs(long gcPauseThresholdMs) {
+		this.gcPauseThresholdMs = gcPauseThresholdMs;
+	}
+
+	public int getDecisionHistorySize() {
+		return decisionHistorySize;
+	}
+
+	public void setDecisionHistorySize(int decisionHistorySize) {
+		this.decisionHistorySize = decisionHistorySize;
+	}
+
+	public int getMaxTrackedStylesheets() {
+		return maxTrackedStylesheets;
+	}
+
+	public void setMaxTrackedStylesheets(int maxTrackedStylesheets) {
+		this.maxTrackedStylesheets = maxTrackedStylesheets;
+	}
+
+}
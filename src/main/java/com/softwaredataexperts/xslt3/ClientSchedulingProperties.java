@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * A class definition, that specifies per api client XSL transformation
+ * scheduling configuration. These values are read from application
+ * properties having prefix "xslt3.scheduler".
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Component
+@ConfigurationProperties(prefix = "xslt3.scheduler")
+public class ClientSchedulingProperties {
+
+	/**
+	 * Maximum number of XSL transformations, that may run concurrently
+	 * for all api clients together.
+	 */
+	private int maxConcurrentTransforms = 16;
+
+	/**
+	 * Maximum time in milliseconds, that an XSL transformation request may
+	 * wait within a client's queue before being rejected.
+	 */
+	private long queueTimeoutMs = 30000;
+
+	/**
+	 * Maximum number of XSL transformation requests, that may wait within
+	 * a client's queue.
+	 */
+	private int maxQueuedPerClient = 100;
+
+	/**
+	 * Length in milliseconds, of a time window over which a client's CPU
+	 * time budget is measured.
+	 */
+	private long cpuBudgetWindowMs = 60000;
+
+	/**
+	 * Maximum number of api clients, whose scheduling state is remembered.
+	 * Scheduling state of idle clients is forgotten, once their CPU time
+	 * budget window has ended.
+	 */
+	private int maxTrackedClients = 1000;
+
+	/**
+	 * Quota used for api clients, that don't have an explicit quota
+	 * configured.
+	 */
+	private ClientQuota defaultClient = new ClientQuota();
+
+	/**
+	 * Quotas for specific api clients, keyed by client id.
+	 */
+	private Map<String, ClientQuota> clients = new HashMap<String, ClientQuota>();
+
+	/**
+	 * Api keys known to this server, each mapped to an api client id.
+	 * Requests that don't have a known api key, are scheduled together
+	 * as one anonymous client.
+	 */
+	private Map<String, String> apiKeys = new HashMap<String, String>();
+
+	/**
+	 * Method definition, to get the quota of an api client.
+	 *
+	 * @param clientId                           An api client's id
+	 * @return                                   ClientQuota object instance
+	 */
+	public ClientQuota getClientQuota(String clientId) {
+		ClientQuota clientQuota = clients.get(clientId);
+
+		return (clientQuota != null) ? clientQuota : defaultClient;
+	}
+
+	public int getMaxConcurrentTransforms() {
+		return maxConcurrentTransforms;
+	}
+
+	public void setMaxConcurrentTransforms(int maxConcurrentTransforms) {
+		this.maxConcurrentTransforms = maxConcurrentTransforms;
+	}
+
+	public long getQueueTimeoutMs() {
+		return queueTimeoutMs;
+	}
+
+	public void setQueueTimeoutMs(long queueTimeoutMs) {
+		this.queueTimeoutMs = queueTimeoutMs;
+	}
+
+	public int getMaxQueuedPerClient() {
+		return maxQueuedPerClient;
+	}
+
+	public void setMaxQueuedPerClient(int maxQueuedPerClient) {
+		this.maxQueuedPerClient = maxQueuedPerClient;
+	}
+
+	public long getCpuBudgetWindowMs() {
+		return cpuBudgetWindowMs;
+	}
+
+	public void setCpuBudgetWindowMs(long cpuBudgetWindowMs) {
+		this.cpuBudgetWindowMs = cpuBudgetWindowMs;
+	}
+
+	public int getMaxTrackedClients() {
+		return maxTrackedClients;
+	}
+
+	public void setMaxTrackedClients(int maxTrackedClients) {
+		this.maxTrackedClients = maxTrackedClients;
+	}
+
+	public Map<String, String> getApiKeys() {
+		return apiKeys;
+	}
+
+	public void setApiKeys(Map<String, String> apiKeys) {
+		this.apiKeys = apiKeys;
+	}
+
+	public ClientQuota getDefaultClient() {
+		return defaultClient;
+	}
+
+	public void setDefaultClient(ClientQuota defaultClient) {
+		this.defaultClient = defaultClient;
+	}
+
+	public Map<String, ClientQuota> getClients() {
+		return clients;
+	}
+
+	public void setClients(Map<String, ClientQuota> clients) {
+		this.clients = clients;
+	}
+
+	/**
+	 * A class definition, that specifies an api client's XSL transformation
+	 * quota.
+	 */
+	public static class ClientQuota {
+
+		/**
+		 * Maximum number of XSL transformations, that may run concurrently
+		 * for an api client.
+		 */
+		private int maxConcurrency = 4;
+
+		/**
+		 * A client's relative share of XSL transformation capacity, when
+		 * several clients are waiting.
+		 */
+		private int weight = 1;
+
+		/**
+		 * CPU time in milliseconds, that a client may consume within one
+		 * budget window. The value 0 means that the CPU time is unlimited.
+		 */
+		private long cpuBudgetMs = 0;
+
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		public void setMaxConcurrency(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+		}
+
+		public int getWeight() {
+			return weight;
+		}
+
+		public void setWeight(int weight) {
+			this.weight = weight;
+		}
+
+		public long getCpuBudgetMs() {
+			return cpuBudgetMs;
+		}
+
+		public void setCpuBudgetMs(long cpuBudgetMs) {
+			this.cpuBudgetMs = cpuBudgetMs;
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.softwaredataexperts.xslt3.util.Constants;
+
+/**
+ * A class definition, that specifies limits of errors reported by
+ * XSL transformations. These values are read from application
+ * properties having prefix "xslt3.diagnostics".
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Component
+@ConfigurationProperties(prefix = "xslt3.diagnostics")
+public class DiagnosticsProperties {
+
+	/**
+	 * Max number of distinct errors, reported by an XSL transformation.
+	 * Further distinct errors are only counted.
+	 */
+	private int maxDistinctErrors = Constants.MAX_DISTINCT_ERRORS;
+
+	/**
+	 * Max length of an error message. A longer error message is truncated.
+	 */
+	private int maxMessageLength = Constants.MAX_ERROR_MESSAGE_LENGTH;
+
+	/**
+	 * Number of errors, after which an XSL transformation is stopped (the
+	 * value 1 stops an XSL transformation on its first error). The value 0
+	 * means, that an XSL transformation runs to completion irrespective of
+	 * the number of errors.
+	 */
+	private int failFastErrorCount = 0;
+
+	public int getMaxDistinctErrors() {
+		return maxDistinctErrors;
+	}
+
+	public void setMaxDistinctErrors(int maxDistinctErrors) {
+		this.maxDistinctErrors = maxDistinctErrors;
+	}
+
+	public int getMaxMessageLength() {
+		return maxMessageLength;
+	}
+
+	public void setMaxMessageLength(int maxMessageLength) {
+		this.maxMessageLength = maxMessageLength;
+	}
+
+	public int getFailFastErrorCount() {
+		return failFastErrorCount;
+	}
+
+	public void setFailFastErrorCount(int failFastErrorCount) {
+		this.failFastErrorCount = failFastErrorCount;
+	}
+
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * A class definition, that specifies XSL stylesheet cost classification
+ * configuration, and the configuration of each cost class's worker pool.
+ * These values are read from application properties having prefix
+ * "xslt3.cost".
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Component
+@ConfigurationProperties(prefix = "xslt3.cost")
+public class StylesheetCostProperties {
+
+	public static final String CHEAP = "cheap";
+
+	public static final String HEAVY = "heavy";
+
+	/**
+	 * Whether XSL transformations run within cost class worker pools. When
+	 * this is false, XSL transformations run within api request threads.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * An XSL stylesheet, whose average XSL transformation time in
+	 * milliseconds is at least this value, is classified heavy.
+	 */
+	private long heavyTransformMs = 1000;
+
+	/**
+	 * An XSL stylesheet, whose average heap allocation per uploaded
+	 * document byte is at least this value, is classified heavy.
+	 */
+	private long heavyAllocatedBytesPerInputByte = 1000;
+
+	/**
+	 * A heavy XSL stylesheet is classified cheap again, only when both
+	 * of its averages fall below this fraction of the heavy thresholds.
+	 */
+	private double demotionRatio = 0.5;
+
+	/**
+	 * A weight (between 0 and 1) of the latest XSL transformation, within
+	 * an XSL stylesheet's averages.
+	 */
+	private double smoothingFactor = 0.3;
+
+	/**
+	 * Max number of XSL stylesheets, whose cost is remembered. When this
+	 * number is exceeded, the least recently used XSL stylesheet is
+	 * forgotten.
+	 */
+	private int maxTrackedStylesheets = 10000;
+
+	/**
+	 * A cost class ("cheap" or "heavy"), of XSL stylesheets that haven't
+	 * been used yet.
+	 */
+	private String defaultClass = CHEAP;
+
+	/**
+	 * Cost classes ("cheap" or "heavy") of specific XSL stylesheets, keyed
+	 * by XSL stylesheet id (i.e, the hex encoded SHA-256 digest of an XSL
+	 * stylesheet file, as printed by "sha256sum"). These XSL stylesheets are
+	 * never reclassified.
+	 */
+	private Map<String, String> overrides = new HashMap<String, String>();
+
+	private WorkerPool cheap = new WorkerPool(8, 200, 2000);
+
+	private WorkerPool heavy = new WorkerPool(2, 20, 60000);
+
+	/**
+	 * Method definition, to get the worker pool configuration of a cost
+	 * class.
+	 *
+	 * @param costClass                          A cost class
+	 * @return                                   WorkerPool object instance
+	 */
+	public WorkerPool getWorkerPool(String costClass) {
+		return HEAVY.equals(costClass) ? heavy : cheap;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getHeavyTransformMs() {
+		return heavyTransformMs;
+	}
+
+	public void setHeavyTransformMs(long heavyTransformMs) {
+		this.heavyTransformMs = heavyTransformMs;
+	}
+
+	public long getHeavyAllocatedBytesPerInputByte() {
+		return heavyAllocatedBytesPerInputByte;
+	}
+
+	public void setHeavyAllocatedBytesPerInputByte(long heavyAllocatedBytesPerInputByte) {
+		this.heavyAllocatedBytesPerInputByte = heavyAllocatedBytesPerInputByte;
+	}
+
+	public double getDemotionRatio() {
+		return demotionRatio;
+	}
+
+	public void setDemotionRatio(double demotionRatio) {
+		this.demotionRatio = demotionRatio;
+	}
+
+	public double getSmoothingFactor() {
+		return smoothingFactor;
+	}
+
+	public void setSmoothingFactor(double smoothingFactor) {
+		this.smoothingFactor = smoothingFactor;
+	}
+
+	public int getMaxTrackedStylesheets() {
+		return maxTrackedStylesheets;
+	}
+
+	public void setMaxTrackedStylesheets(int maxTrackedStylesheets) {
+		this.maxTrackedStylesheets = maxTrackedStylesheets;
+	}
+
+	public String getDefaultClass() {
+		return defaultClass;
+	}
+
+	public void setDefaultClass(String defaultClass) {
+		this.defaultClass = defaultClass;
+	}
+
+	public Map<String, String> getOverrides() {
+		return overrides;
+	}
+
+	public void setOverrides(Map<String, String> overrides) {
+		this.overrides = overrides;
+	}
+
+	public WorkerPool getCheap() {
+		return cheap;
+	}
+
+	public void setCheap(WorkerPool cheap) {
+		this.cheap = cheap;
+	}
+
+	public WorkerPool getHeavy() {
+		return heavy;
+	}
+
+	public void setHeavy(WorkerPool heavy) {
+		this.heavy = heavy;
+	}
+
+	/**
+	 * A class definition, that specifies a cost class's worker pool.
+	 */
+	public static class WorkerPool {
+
+		/**
+		 * Number of threads, running XSL transformations of a cost class.
+		 * This is also the max number of XSL transformations of a cost
+		 * class, that the client scheduler admits concurrently. Requests
+		 * beyond this number wait within the client scheduler's queues.
+		 */
+		private int threads = 1;
+
+		/**
+		 * Max number of XSL transformation requests of a cost class, that may
+		 * wait within the client scheduler's queues. When this many requests of
+		 * a cost class are waiting, further requests of that cost class which
+		 * cannot be admitted at once are rejected.
+		 */
+		private int queueCapacity = 1;
+
+		/**
+		 * Max time in milliseconds, that an XSL transformation request of a
+		 * cost class may wait within the client scheduler's queues, before it
+		 * is rejected. The value 0 means, that only the client scheduler's
+		 * queue timeout applies.
+		 */
+		private long queueTimeoutMs = 0;
+
+		/**
+		 * Class constructor.
+		 */
+		public WorkerPool() {
+			// no op
+		}
+
+		/**
+		 * Class constructor.
+		 *
+		 * @param threads                            Number of threads
+		 * @param queueCapacity                      Max number of waiting XSL transformation requests
+		 * @param queueTimeoutMs                     Max wait time in milliseconds
+		 */
+		public WorkerPool(int threads, int queueCapacity, long queueTimeoutMs) {
+			this.threads = threads;
+			this.queueCapacity = queueCapacity;
+			this.queueTimeoutMs = queueTimeoutMs;
+		}
+
+		public int getThreads() {
+			return threads;
+		}
+
+		public void setThreads(int threads) {
+			this.threads = threads;
+		}
+
+		public int getQueueCapacity() {
+			return queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public long getQueueTimeoutMs() {
+			return queueTimeoutMs;
+		}
+
+		public void setQueueTimeoutMs(long queueTimeoutMs) {
+			this.queueTimeoutMs = queueTimeoutMs;
+		}
+
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3;
+
+import java.io.File;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * A class definition, that specifies XSL transformation traffic
+ * capture configuration. These values are read from application
+ * properties having prefix "xslt3.capture".
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Component
+@ConfigurationProperties(prefix = "xslt3.capture")
+public class TrafficCaptureProperties {
+
+	/**
+	 * Whether XSL transformation requests are captured at all.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * A fraction of XSL transformation requests (between 0 and 1), that
+	 * are considered for capture.
+	 */
+	private double sampleRate = 1.0;
+
+	/**
+	 * An XSL transformation request taking longer than this time in
+	 * milliseconds, is captured.
+	 */
+	private long latencyThresholdMs = 5000;
+
+	/**
+	 * An XSL transformation request allocating more heap memory than
+	 * this size in MB, is captured.
+	 */
+	private long allocationThresholdMb = 512;
+
+	/**
+	 * A directory, within which captured requests are stored.
+	 */
+	private String dir = System.getProperty("java.io.tmpdir") + File.separator + "xsl3-captures";
+
+	/**
+	 * Max number of captured requests that are retained. When this number
+	 * is exceeded, the oldest captured request is deleted.
+	 */
+	private int maxEntries = 50;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public long getLatencyThresholdMs() {
+		return latencyThresholdMs;
+	}
+
+	public void setLatencyThresholdMs(long latencyThresholdMs) {
+		this.latencyThresholdMs = latencyThresholdMs;
+	}
+
+	public long getAllocationThresholdMb() {
+		return allocationThresholdMb;
+	}
+
+	public void setAllocationThresholdMb(long allocationThresholdMb) {
+		this.allocationThresholdMb = allocationThresholdMb;
+	}
+
+	public String getDir() {
+		return dir;
+	}
+
+	public void setDir(String dir) {
+		this.dir = dir;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+}
@@ -19,20 +19,39 @@ package com.softwaredataexperts.xslt3.controller;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwaredataexperts.xslt3.model.ClientUtilizationStats;
+import com.softwaredataexperts.xslt3.model.ConcurrencyLimiterStatus;
+import com.softwaredataexperts.xslt3.model.StylesheetCostStatus;
 import com.softwaredataexperts.xslt3.model.XSLTransformationResult;
+import com.softwaredataexperts.xslt3.model.XslErrorResponse;
+import com.softwaredataexperts.xslt3.service.AdaptiveConcurrencyLimiter;
+import com.softwaredataexperts.xslt3.service.ClientThrottledException;
+import com.softwaredataexperts.xslt3.service.ClientTransformationScheduler;
+import com.softwaredataexperts.xslt3.service.CostClassWorkerPools;
 import com.softwaredataexperts.xslt3.service.XSLTransformationService;
 import com.softwaredataexperts.xslt3.util.Constants;
+import com.softwaredataexperts.xslt3.util.XslResultDocumentHandler;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -50,11 +69,25 @@ public class XSLTransformationController {
 	@Autowired
 	private XSLTransformationService xslTransformationService;
 	
+	@Autowired
+	private ClientTransformationScheduler clientTransformationScheduler;
+	
+	@Autowired
+	private AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+	
+	@Autowired
+	private CostClassWorkerPools costClassWorkerPools;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
 	/**
 	 * Method definition, to accept XSL transformation upload files, and 
 	 * other XSL transformation configuration options.
 	 * 
-	 * @param xmlFile							 Reference to XML document uploaded
+	 * @param xmlFile							 Reference to XML document uploaded. A JSON, CSV or TSV
+	 *                                           document may be uploaded instead, with its media type
+	 *                                           (for example, application/json or text/csv).
 	 * @param xslFile                            Reference to an XSL stylesheet document uploaded 
 	 * @param auxFile                            Reference to an auxiliary document file uploaded 
 	 * @param initTempl                          An XSL transformation's initial template name
@@ -62,7 +95,9 @@ public class XSLTransformationController {
 	 * @param enableAssert                       Boolean value true or false, whether XSL transformation
 	 *                                           xsl:assert feature is enabled or not.
 	 * @param enableXslEvaluate                  Boolean value true or false, whether XSL transformation
-	 *                                           xsl:evaluate feature is enabled or not.                                            
+	 *                                           xsl:evaluate feature is enabled or not.
+	 * @param apiKey                             An api client's api key, used for XSL transformation
+	 *                                           request scheduling
 	 * @return                                   ResponseEntity object instance
 	 */
 	@ApiOperation(value = "Method to, do XSL transformation as per arguments provided to this method, "
@@ -75,7 +110,8 @@ public class XSLTransformationController {
     		                                          @RequestParam("init_template") Optional<String> initTempl,
     		                                          @RequestParam("init_mode") Optional<String> initMode,
     		                                          @RequestParam("enable_assert") Optional<String> enableAssert,
-    		                                          @RequestParam("enable_xsl_evaluate") Optional<String> enableXslEvaluate)
+    		                                          @RequestParam("enable_xsl_evaluate") Optional<String> enableXslEvaluate,
+    		                                          @RequestHeader(Constants.API_KEY_HEADER) Optional<String> apiKey)
     {
 				
 		XSLTransformationResult xslTransformResult = new XSLTransformationResult();				
@@ -90,13 +126,14 @@ public class XSLTransformationController {
 		ResponseEntity<Object> responseEntity = null;
 		
 		try {	
-		   xslTransformResult = xslTransformationService.xslTransform(xmlFile, xslFile, auxFile, initTempl, initMode, enableAssert, enableXslEvaluate);
-		   
-		   List<String> errList = xslTransformResult.getErrorList();
+		   String schedulingClientId = clientTransformationScheduler.resolveClientId(apiKey);
+			
+		   xslTransformResult = xslTransformationService.xslTransform(schedulingClientId, xmlFile, xslFile, auxFile, initTempl, 
+				                                                      initMode, enableAssert, enableXslEvaluate);
 		   
 		   MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
 		   
-		   if (errList.size() == 0) {
+		   if (!xslTransformResult.hasErrors()) {
 			   String responseFormatStr = xslTransformResult.getResponseFormatStr();
 			   		   		   
 			   if ((Constants.XML).equals(responseFormatStr)) {
@@ -117,19 +154,192 @@ public class XSLTransformationController {
 		   else {
 			   responseHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
 			   
-			   responseEntity = new ResponseEntity<Object>(xslTransformResult.getErrorList(), responseHeaders, HttpStatus.BAD_REQUEST);
+			   responseEntity = new ResponseEntity<Object>(new XslErrorResponse(xslTransformResult), responseHeaders, HttpStatus.BAD_REQUEST);
 		   }
 		}
+		catch (ClientThrottledException ex) {
+			xslTransformResult.addError(ex.getMessage());
+		    
+		    MultiValueMap<String, String> errorResultHeaders = new LinkedMultiValueMap<>();
+		    errorResultHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
+		    responseEntity = new ResponseEntity<Object>(new XslErrorResponse(xslTransformResult), errorResultHeaders, HttpStatus.TOO_MANY_REQUESTS);
+		}
 		catch (Exception ex) {		    
-			List<String> errList = xslTransformResult.getErrorList();
-		    errList.add(ex.getMessage());
+			xslTransformResult.addError(ex.getMessage());
 		    
 		    MultiValueMap<String, String> errorResultHeaders = new LinkedMultiValueMap<>();
 		    errorResultHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
-		    responseEntity = new ResponseEntity<Object>(errList, errorResultHeaders, HttpStatus.BAD_REQUEST); 
+		    responseEntity = new ResponseEntity<Object>(new XslErrorResponse(xslTransformResult), errorResultHeaders, HttpStatus.BAD_REQUEST); 
 		}
 		
 		return responseEntity;
     }
 
+	/**
+	 * Method definition, to accept XSL transformation upload files, and 
+	 * other XSL transformation configuration options. The XSL transformation's 
+	 * principal result and all of its secondary result documents (i.e, the 
+	 * ones produced by xsl:result-document instruction), are streamed to 
+	 * an api client as entries of a ZIP archive.
+	 * 
+	 * @param xmlFile							 Reference to XML document uploaded. A JSON, CSV or TSV
+	 *                                           document may be uploaded instead, with its media type
+	 *                                           (for example, application/json or text/csv).
+	 * @param xslFile                            Reference to an XSL stylesheet document uploaded 
+	 * @param auxFile                            Reference to an auxiliary document file uploaded 
+	 * @param initTempl                          An XSL transformation's initial template name
+	 * @param initMode                           An XSL transformation's initial mode name
+	 * @param enableAssert                       Boolean value true or false, whether XSL transformation
+	 *                                           xsl:assert feature is enabled or not.
+	 * @param enableXslEvaluate                  Boolean value true or false, whether XSL transformation
+	 *                                           xsl:evaluate feature is enabled or not.
+	 * @param apiKey                             An api client's api key, used for XSL transformation
+	 *                                           request scheduling
+	 * @param request                            An HTTP request object
+	 * @return                                   ResponseEntity object instance
+	 */
+	@ApiOperation(value = "Method to, do XSL transformation as per arguments provided to this method, "
+			                                                                         + "and send XSL transformation's principal result and all "
+			                                                                         + "result documents to api client as a ZIP archive", 
+			      produces = "ZIP, JSON")    
+	@PostMapping("/xsl3/transform/archive")
+    public ResponseEntity<StreamingResponseBody> xslTransformArchiveHandler(@RequestParam("xml_file") Optional<MultipartFile> xmlFile, 
+    		                                                                @RequestParam("xsl_file") MultipartFile xslFile, 
+    		                                                                @RequestParam("aux_file") Optional<MultipartFile> auxFile, 
+    		                                                                @RequestParam("init_template") Optional<String> initTempl,
+    		                                                                @RequestParam("init_mode") Optional<String> initMode,
+    		                                                                @RequestParam("enable_assert") Optional<String> enableAssert,
+    		                                                                @RequestParam("enable_xsl_evaluate") Optional<String> enableXslEvaluate,
+    		                                                                @RequestHeader(Constants.API_KEY_HEADER) Optional<String> apiKey,
+    		                                                                HttpServletRequest request)
+    {
+		
+		XSLTransformationResult xslTransformResult = new XSLTransformationResult();
+		
+		ResponseEntity<StreamingResponseBody> responseEntity = null;
+		
+		XslResultDocumentHandler resultDocumentHandler = null;
+		
+		try {
+		   resultDocumentHandler = new XslResultDocumentHandler();
+		   
+		   String schedulingClientId = clientTransformationScheduler.resolveClientId(apiKey);
+			
+		   xslTransformResult = xslTransformationService.xslTransform(schedulingClientId, xmlFile, xslFile, auxFile, initTempl, 
+				                                                      initMode, enableAssert, enableXslEvaluate, resultDocumentHandler);
+		   
+		   MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
+		   
+		   if (!xslTransformResult.hasErrors()) {
+			   responseHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/zip"));
+			   
+			   final XslResultDocumentHandler zipResultDocumentHandler = resultDocumentHandler;
+			   final String principalResultStr = xslTransformResult.getResultDocumentStr();
+			   final String principalResultFormatStr = xslTransformResult.getResponseFormatStr();
+			   
+			   StreamingResponseBody responseBody = outputStream -> zipResultDocumentHandler.writeZipArchive(outputStream, principalResultStr, 
+					                                                                                         principalResultFormatStr);
+			   
+			   // The spool directory is deleted when the response is complete, even if 
+			   // the response body was never written (for example, because of an async 
+			   // request timeout or a client disconnect).
+			   (WebAsyncUtils.getAsyncManager(request)).registerCallableInterceptor(zipResultDocumentHandler, new CallableProcessingInterceptor() {
+				   @Override
+				   public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+					   zipResultDocumentHandler.cleanup();
+				   }
+			   });
+			   
+			   responseEntity = new ResponseEntity<StreamingResponseBody>(responseBody, responseHeaders, HttpStatus.OK);
+		   }
+		   else {
+			   resultDocumentHandler.cleanup();
+			   
+			   responseEntity = getErrorResponseEntity(new XslErrorResponse(xslTransformResult), HttpStatus.BAD_REQUEST);
+		   }
+		}
+		catch (Exception ex) {
+			if (resultDocumentHandler != null) {
+			   resultDocumentHandler.cleanup();
+			}
+			
+			xslTransformResult.addError(ex.getMessage());
+		    
+		    HttpStatus httpStatus = (ex instanceof ClientThrottledException) ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.BAD_REQUEST;
+		    
+		    responseEntity = getErrorResponseEntity(new XslErrorResponse(xslTransformResult), httpStatus); 
+		}
+		
+		return responseEntity;
+    }
+	
+	/**
+	 * Method definition, to construct a JSON error response for a 
+	 * streaming api method.
+	 * 
+	 * @param xslErrorResponse                   XSL transformation error information
+	 * @param httpStatus                         An HTTP status of the error response
+	 * @return                                   ResponseEntity object instance
+	 */
+	private ResponseEntity<StreamingResponseBody> getErrorResponseEntity(XslErrorResponse xslErrorResponse, HttpStatus httpStatus) {
+		MultiValueMap<String, String> errorResultHeaders = new LinkedMultiValueMap<>();
+	    errorResultHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
+	    
+	    StreamingResponseBody responseBody = outputStream -> objectMapper.writeValue(outputStream, xslErrorResponse);
+	    
+	    return new ResponseEntity<StreamingResponseBody>(responseBody, errorResultHeaders, httpStatus);
+	}
+	
+	/**
+	 * Method definition, to get XSL transformation utilization and throttling 
+	 * statistics of all api clients.
+	 * 
+	 * @return                                   ResponseEntity object instance
+	 */
+	@ApiOperation(value = "Method to, get XSL transformation utilization and throttling statistics of "
+			                                                                         + "all api clients", 
+			      produces = "JSON")
+	@GetMapping("/xsl3/clients/stats")
+	public ResponseEntity<List<ClientUtilizationStats>> clientUtilizationStatsHandler() {
+		MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
+		responseHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
+		
+		return new ResponseEntity<List<ClientUtilizationStats>>(clientTransformationScheduler.getClientUtilizationStats(), 
+				                                                responseHeaders, HttpStatus.OK);
+	}
+
+	/**
+	 * Method definition, to get the current XSL transformation adaptive 
+	 * concurrency limit, and its recent limit decisions.
+	 * 
+	 * @return                                   ResponseEntity object instance
+	 */
+	@ApiOperation(value = "Method to, get the current XSL transformation adaptive concurrency limit, "
+			                                                                         + "and its recent limit decisions", 
+			      produces = "JSON")
+	@GetMapping("/xsl3/limiter/status")
+	public ResponseEntity<ConcurrencyLimiterStatus> concurrencyLimiterStatusHandler() {
+		MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
+		responseHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
+		
+		return new ResponseEntity<ConcurrencyLimiterStatus>(adaptiveConcurrencyLimiter.getStatus(), responseHeaders, HttpStatus.OK);
+	}
+
+	/**
+	 * Method definition, to get the state of XSL stylesheet cost class 
+	 * worker pools, and the observed cost of most costly XSL stylesheets.
+	 * 
+	 * @return                                   ResponseEntity object instance
+	 */
+	@ApiOperation(value = "Method to, get the state of XSL stylesheet cost class worker pools, and the observed "
+			                                                                         + "cost of most costly XSL stylesheets", 
+			      produces = "JSON")
+	@GetMapping("/xsl3/stylesheets/cost")
+	public ResponseEntity<StylesheetCostStatus> stylesheetCostStatusHandler() {
+		MultiValueMap<String, String> responseHeaders = new LinkedMultiValueMap<>();
+		responseHeaders.put(org.springframework.http.HttpHeaders.CONTENT_TYPE, Arrays.asList("application/json"));
+		
+		return new ResponseEntity<StylesheetCostStatus>(costClassWorkerPools.getStatus(), responseHeaders, HttpStatus.OK);
+	}
+
 }
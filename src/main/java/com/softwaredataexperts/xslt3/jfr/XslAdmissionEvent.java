@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A class definition, of a JDK Flight Recorder event that records
+ * an admission of an XSL transformation request by this server's
+ * client scheduler. The event's duration is the time
+ * a request waited to be admitted.
+ * 
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Name(XslEvents.EVENT_NAME_PREFIX + "Admission")
+@Label("XSL Transformation Admission")
+@Category(XslEvents.EVENT_CATEGORY)
+@StackTrace(false)
+public class XslAdmissionEvent extends Event {
+
+	@Label("Admission Stage")
+	@Description("An admission stage, i.e \"clientScheduler\"")
+	public String stage;
+
+	@Label("Client Id")
+	public String clientId;
+
+	@Label("Cost Class")
+	@Description("A cost class of the request's XSL stylesheet, i.e \"cheap\" or \"heavy\"")
+	public String costClass;
+
+	@Label("Admitted")
+	public boolean admitted;
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A class definition, of a JDK Flight Recorder event that records
+ * compilation of an XSL stylesheet into a Templates object.
+ * 
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Name(XslEvents.EVENT_NAME_PREFIX + "Compile")
+@Label("XSL Stylesheet Compile")
+@Category(XslEvents.EVENT_CATEGORY)
+@StackTrace(false)
+public class XslCompileEvent extends Event {
+
+	@Label("Stylesheet Id")
+	public String stylesheetId;
+
+	@Label("Stylesheet Size")
+	@DataAmount
+	public long stylesheetSize;
+
+	@Label("Error Count")
+	public int errorCount;
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.jfr;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A class definition, specifying few constants and helper methods used
+ * by this project's JDK Flight Recorder events.
+ *
+ * These events are recorded by any JDK Flight Recorder recording that
+ * is started at runtime (for example, with "jcmd <pid> JFR.start"), along
+ * with JVM events like garbage collections and safepoints, and these
+ * events can be disabled by a recording's settings. Stack traces are not
+ * captured for these events, unless a recording's settings specify
+ * "stackTrace" true for them. When no recording is running, an event's
+ * cost is a few timestamp reads.
+ *
+ * These events use the jdk.jfr api, and therefore this project is built
+ * for, and requires, Java 11 or later.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslEvents {
+
+	public static final String EVENT_NAME_PREFIX = "com.softwaredataexperts.xslt3.";
+
+	public static final String EVENT_CATEGORY = "Xalan XSLT 3.0 api";
+
+	public static final String STAGE_CLIENT_SCHEDULER = "clientScheduler";
+
+	public static final String DOCUMENT_KIND_INPUT = "input";
+
+	public static final String DOCUMENT_KIND_STYLESHEET = "stylesheet";
+
+	public static final String DESTINATION_PRINCIPAL_RESULT = "principalResult";
+
+	public static final String DESTINATION_ZIP_ARCHIVE = "zipArchive";
+
+	/**
+	 * Method definition, to get an id of an XSL stylesheet, that is same
+	 * for all XSL stylesheets having identical content. An XSL stylesheet id
+	 * is the hex encoded SHA-256 digest of an XSL stylesheet's content, since
+	 * it also selects an XSL stylesheet's cost class and concurrency limiter
+	 * baseline, which distinct XSL stylesheets must not share.
+	 *
+	 * @param xslDocBytes                        An XSL stylesheet document's content
+	 * @return                                   An XSL stylesheet id
+	 */
+	public static String getStylesheetId(byte[] xslDocBytes) {
+		MessageDigest messageDigest = null;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("The SHA-256 message digest algorithm is not available.", ex);
+		}
+
+		byte[] digestBytes = messageDigest.digest(xslDocBytes);
+		StringBuilder strBuilder = new StringBuilder(2 * digestBytes.length);
+		for (int idx = 0; idx < digestBytes.length; idx++) {
+			strBuilder.append(Character.forDigit((digestBytes[idx] >> 4) & 0xF, 16));
+			strBuilder.append(Character.forDigit(digestBytes[idx] & 0xF, 16));
+		}
+
+		return strBuilder.toString();
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A class definition, of a JDK Flight Recorder event that records
+ * serialization of an XSL transformation's result to its destination.
+ * 
+ * For an XSL transformation's principal result, this event starts when
+ * the serializer writes the first character, and ends when the XSL
+ * transformation ends. Since serialization is interleaved with the XSL
+ * transformation, the event's "Write Time" field is the part of this
+ * duration spent within writes of serialized characters. For a ZIP
+ * archive response, this event records writing of all ZIP entries to
+ * the response stream.
+ * 
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Name(XslEvents.EVENT_NAME_PREFIX + "Serialize")
+@Label("XSL Result Serialize")
+@Category(XslEvents.EVENT_CATEGORY)
+@StackTrace(false)
+public class XslSerializeEvent extends Event {
+
+	@Label("Stylesheet Id")
+	public String stylesheetId;
+
+	@Label("Destination")
+	@Description("Either \"principalResult\" or \"zipArchive\"")
+	public String destination;
+
+	@Label("Output Method")
+	public String outputMethod;
+
+	@Label("Output Size")
+	@Description("Serialized result size, in characters for a principal result and in bytes for a ZIP archive")
+	public long outputSize;
+
+	@Label("Write Time")
+	@Description("Time spent writing serialized output to its destination")
+	@Timespan(Timespan.NANOSECONDS)
+	public long writeTime;
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A class definition, of a JDK Flight Recorder event that records
+ * an XSL transformation run, including serialization of the
+ * principal result into a character buffer.
+ * 
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Name(XslEvents.EVENT_NAME_PREFIX + "Transform")
+@Label("XSL Transform")
+@Category(XslEvents.EVENT_CATEGORY)
+@StackTrace(false)
+public class XslTransformEvent extends Event {
+
+	@Label("Stylesheet Id")
+	public String stylesheetId;
+
+	@Label("Input Size")
+	@DataAmount
+	public long inputSize;
+
+	@Label("Output Size")
+	@Description("Principal result size, in characters")
+	public long outputSize;
+
+	@Label("Error Count")
+	public int errorCount;
+
+}
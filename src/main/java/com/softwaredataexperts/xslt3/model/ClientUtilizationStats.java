@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+/**
+ * A class definition, that encapsulates XSL transformation utilization
+ * and throttling statistics of one api client.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class ClientUtilizationStats {
+
+	private String m_clientId = null;
+
+	private int m_weight = 0;
+
+	private int m_maxConcurrency = 0;
+
+	/**
+	 * Number of XSL transformations of this client, that are currently
+	 * running.
+	 */
+	private int m_inFlight = 0;
+
+	/**
+	 * Number of XSL transformation requests of this client, that are
+	 * currently waiting within a queue.
+	 */
+	private int m_queued = 0;
+
+	private long m_admittedCount = 0;
+
+	/**
+	 * Number of XSL transformation requests of this client, that were
+	 * rejected because the client's queue was full, or the request
+	 * waited within a queue for too long.
+	 */
+	private long m_rejectedCount = 0;
+
+	/**
+	 * Number of XSL transformation requests of this client, that were
+	 * rejected because the client's CPU time budget was exhausted.
+	 */
+	private long m_throttledCount = 0;
+
+	private long m_totalCpuTimeMs = 0;
+
+	private long m_windowCpuTimeMs = 0;
+
+	private long m_totalQueueWaitMs = 0;
+
+	public String getClientId() {
+		return m_clientId;
+	}
+
+	public void setClientId(String clientId) {
+		this.m_clientId = clientId;
+	}
+
+	public int getWeight() {
+		return m_weight;
+	}
+
+	public void setWeight(int weight) {
+		this.m_weight = weight;
+	}
+
+	public int getMaxConcurrency() {
+		return m_maxConcurrency;
+	}
+
+	public void setMaxConcurrency(int maxConcurrency) {
+		this.m_maxConcurrency = maxConcurrency;
+	}
+
+	public int getInFlight() {
+		return m_inFlight;
+	}
+
+	public void setInFlight(int inFlight) {
+		this.m_inFlight = inFlight;
+	}
+
+	public int getQueued() {
+		return m_queued;
+	}
+
+	public void setQueued(int queued) {
+		this.m_queued = queued;
+	}
+
+	public long getAdmittedCount() {
+		return m_admittedCount;
+	}
+
+	public void setAdmittedCount(long admittedCount) {
+		this.m_admittedCount = admittedCount;
+	}
+
+	public long getRejectedCount() {
+		return m_rejectedCount;
+	}
+
+	public void setRejectedCount(long rejectedCount) {
+		this.m_rejectedCount = rejectedCount;
+	}
+
+	public long getThrottledCount() {
+		return m_throttledCount;
+	}
+
+	public void setThrottledCount(long throttledCount) {
+		this.m_throttledCount = throttledCount;
+	}
+
+	public long getTotalCpuTimeMs() {
+		return m_totalCpuTimeMs;
+	}
+
+	public void setTotalCpuTimeMs(long totalCpuTimeMs) {
+		this.m_totalCpuTimeMs = totalCpuTimeMs;
+	}
+
+	public long getWindowCpuTimeMs() {
+		return m_windowCpuTimeMs;
+	}
+
+	public void setWindowCpuTimeMs(long windowCpuTimeMs) {
+		this.m_windowCpuTimeMs = windowCpuTimeMs;
+	}
+
+	public long getTotalQueueWaitMs() {
+		return m_totalQueueWaitMs;
+	}
+
+	public void setTotalQueueWaitMs(long totalQueueWaitMs) {
+		this.m_totalQueueWaitMs = totalQueueWaitMs;
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+/**
+ * A class definition, that encapsulates one change of an XSL
+ * transformation adaptive concurrency limit.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class ConcurrencyLimitDecision {
+
+	private long m_timestampMs = 0;
+
+	private int m_previousLimit = 0;
+
+	private int m_newLimit = 0;
+
+	/**
+	 * This can have string value "LATENCY", "HEAP_PRESSURE", "GC_PAUSE"
+	 * or "INCREASE".
+	 */
+	private String m_reason = null;
+
+	private long m_latencyMs = 0;
+
+	private double m_oldGenUsage = 0;
+
+	public ConcurrencyLimitDecision(long timestampMs, int previousLimit, int newLimit, String reason,
+			                                                                       long latencyMs, double oldGenUsage) {
+		this.m_timestampMs = timestampMs;
+		this.m_previousLimit = previousLimit;
+		this.m_newLimit = newLimit;
+		this.m_reason = reason;
+		this.m_latencyMs = latencyMs;
+		this.m_oldGenUsage = oldGenUsage;
+	}
+
+	public long getTimestampMs() {
+		return m_timestampMs;
+	}
+
+	public int getPreviousLimit() {
+		return m_previousLimit;
+	}
+
+	public int getNewLimit() {
+		return m_newLimit;
+	}
+
+	public String getReason() {
+		return m_reason;
+	}
+
+	public long getLatencyMs() {
+		return m_latencyMs;
+	}
+
+	public double getOldGenUsage() {
+		return m_oldGenUsage;
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class definition, that encapsulates the current state of an XSL
+ * transformation adaptive concurrency limiter.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class ConcurrencyLimiterStatus {
+
+	private int m_limit = 0;
+
+	private int m_inFlight = 0;
+
+	private long m_smoothedLatencyMs = 0;
+
+	private double m_oldGenUsage = 0;
+
+	/**
+	 * Most recent limit decisions, with the oldest decision first.
+	 */
+	private List<ConcurrencyLimitDecision> m_decisionList = new ArrayList<ConcurrencyLimitDecision>();
+
+	public int getLimit() {
+		return m_limit;
+	}
+
+	public void setLimit(int limit) {
+		this.m_limit = limit;
+	}
+
+	public int getInFlight() {
+		return m_inFlight;
+	}
+
+	public void setInFlight(int inFlight) {
+		this.m_inFlight = inFlight;
+	}
+
+	public long getSmoothedLatencyMs() {
+		return m_smoothedLatencyMs;
+	}
+
+	public void setSmoothedLatencyMs(long smoothedLatencyMs) {
+		this.m_smoothedLatencyMs = smoothedLatencyMs;
+	}
+
+	public double getOldGenUsage() {
+		return m_oldGenUsage;
+	}
+
+	public void setOldGenUsage(double oldGenUsage) {
+		this.m_oldGenUsage = oldGenUsage;
+	}
+
+	public List<ConcurrencyLimitDecision> getDecisionList() {
+		return m_decisionList;
+	}
+
+	public void setDecisionList(List<ConcurrencyLimitDecision> decisionList) {
+		this.m_decisionList = decisionList;
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+/**
+ * A class definition, that encapsulates the current state of one cost
+ * class's XSL transformation worker pool.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class CostClassPoolStats {
+
+	/**
+	 * This can have string value "cheap" or "heavy".
+	 */
+	private String m_costClass = null;
+
+	private int m_threads = 0;
+
+	private int m_active = 0;
+
+	/**
+	 * Number of XSL transformation requests of a cost class, that are
+	 * waiting to be admitted by the client scheduler.
+	 */
+	private int m_waiting = 0;
+
+	private int m_queueCapacity = 0;
+
+	private long m_queueTimeoutMs = 0;
+
+	private long m_completedCount = 0;
+
+	/**
+	 * Number of XSL transformation requests of a cost class rejected,
+	 * because the cost class's queue capacity was reached.
+	 */
+	private long m_rejectedCount = 0;
+
+	/**
+	 * Number of XSL transformation requests of a cost class rejected,
+	 * because they waited for admission for longer than the queue timeout.
+	 */
+	private long m_timedOutCount = 0;
+
+	public String getCostClass() {
+		return m_costClass;
+	}
+
+	public void setCostClass(String costClass) {
+		this.m_costClass = costClass;
+	}
+
+	public int getThreads() {
+		return m_threads;
+	}
+
+	public void setThreads(int threads) {
+		this.m_threads = threads;
+	}
+
+	public int getActive() {
+		return m_active;
+	}
+
+	public void setActive(int active) {
+		this.m_active = active;
+	}
+
+	public int getWaiting() {
+		return m_waiting;
+	}
+
+	public void setWaiting(int waiting) {
+		this.m_waiting = waiting;
+	}
+
+	public int getQueueCapacity() {
+		return m_queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.m_queueCapacity = queueCapacity;
+	}
+
+	public long getQueueTimeoutMs() {
+		return m_queueTimeoutMs;
+	}
+
+	public void setQueueTimeoutMs(long queueTimeoutMs) {
+		this.m_queueTimeoutMs = queueTimeoutMs;
+	}
+
+	public long getCompletedCount() {
+		return m_completedCount;
+	}
+
+	public void setCompletedCount(long completedCount) {
+		this.m_completedCount = completedCount;
+	}
+
+	public long getRejectedCount() {
+		return m_rejectedCount;
+	}
+
+	public void setRejectedCount(long rejectedCount) {
+		this.m_rejectedCount = rejectedCount;
+	}
+
+	public long getTimedOutCount() {
+		return m_timedOutCount;
+	}
+
+	public void setTimedOutCount(long timedOutCount) {
+		this.m_timedOutCount = timedOutCount;
+	}
+
+}
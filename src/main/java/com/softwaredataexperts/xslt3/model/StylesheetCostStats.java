@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+/**
+ * A class definition, that encapsulates the observed cost of one XSL
+ * stylesheet, and the cost class its XSL transformations run in.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class StylesheetCostStats {
+
+	private String m_stylesheetId = null;
+
+	/**
+	 * This can have string value "cheap" or "heavy".
+	 */
+	private String m_costClass = null;
+
+	/**
+	 * Whether an XSL stylesheet's cost class is specified by this server's
+	 * configuration, instead of being classified from its observed cost.
+	 */
+	private boolean m_overridden = false;
+
+	private long m_transformCount = 0;
+
+	/**
+	 * An exponentially weighted average of XSL transformation time.
+	 */
+	private long m_avgTransformMs = 0;
+
+	/**
+	 * An exponentially weighted average of heap allocation per uploaded
+	 * document byte, or -1 when heap allocation is not measured.
+	 */
+	private long m_avgAllocatedBytesPerInputByte = -1;
+
+	/**
+	 * Number of times an XSL stylesheet moved between cost classes.
+	 */
+	private long m_reclassifiedCount = 0;
+
+	public String getStylesheetId() {
+		return m_stylesheetId;
+	}
+
+	public void setStylesheetId(String stylesheetId) {
+		this.m_stylesheetId = stylesheetId;
+	}
+
+	public String getCostClass() {
+		return m_costClass;
+	}
+
+	public void setCostClass(String costClass) {
+		this.m_costClass = costClass;
+	}
+
+	public boolean isOverridden() {
+		return m_overridden;
+	}
+
+	public void setOverridden(boolean overridden) {
+		this.m_overridden = overridden;
+	}
+
+	public long getTransformCount() {
+		return m_transformCount;
+	}
+
+	public void setTransformCount(long transformCount) {
+		this.m_transformCount = transformCount;
+	}
+
+	public long getAvgTransformMs() {
+		return m_avgTransformMs;
+	}
+
+	public void setAvgTransformMs(long avgTransformMs) {
+		this.m_avgTransformMs = avgTransformMs;
+	}
+
+	public long getAvgAllocatedBytesPerInputByte() {
+		return m_avgAllocatedBytesPerInputByte;
+	}
+
+	public void setAvgAllocatedBytesPerInputByte(long avgAllocatedBytesPerInputByte) {
+		this.m_avgAllocatedBytesPerInputByte = avgAllocatedBytesPerInputByte;
+	}
+
+	public long getReclassifiedCount() {
+		return m_reclassifiedCount;
+	}
+
+	public void setReclassifiedCount(long reclassifiedCount) {
+		this.m_reclassifiedCount = reclassifiedCount;
+	}
+
+}
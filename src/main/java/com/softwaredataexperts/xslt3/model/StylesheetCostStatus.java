@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class definition, that encapsulates the current state of XSL
+ * stylesheet cost classification, and of the cost class worker pools.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class StylesheetCostStatus {
+
+	private boolean m_enabled = false;
+
+	private List<CostClassPoolStats> m_poolList = new ArrayList<CostClassPoolStats>();
+
+	/**
+	 * Number of XSL stylesheets, whose cost is remembered.
+	 */
+	private int m_trackedStylesheetCount = 0;
+
+	/**
+	 * XSL stylesheets having the largest average XSL transformation time,
+	 * with the most costly XSL stylesheet first.
+	 */
+	private List<StylesheetCostStats> m_stylesheetList = new ArrayList<StylesheetCostStats>();
+
+	public boolean isEnabled() {
+		return m_enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.m_enabled = enabled;
+	}
+
+	public List<CostClassPoolStats> getPoolList() {
+		return m_poolList;
+	}
+
+	public void setPoolList(List<CostClassPoolStats> poolList) {
+		this.m_poolList = poolList;
+	}
+
+	public int getTrackedStylesheetCount() {
+		return m_trackedStylesheetCount;
+	}
+
+	public void setTrackedStylesheetCount(int trackedStylesheetCount) {
+		this.m_trackedStylesheetCount = trackedStylesheetCount;
+	}
+
+	public List<StylesheetCostStats> getStylesheetList() {
+		return m_stylesheetList;
+	}
+
+	public void setStylesheetList(List<StylesheetCostStats> stylesheetList) {
+		this.m_stylesheetList = stylesheetList;
+	}
+
+}
@@ -17,7 +17,9 @@
 package com.softwaredataexperts.xslt3.model;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A class definition, that encapsulates the result of an XSL 
@@ -44,7 +46,37 @@ public class XSLTransformationResult {
 	 * shall contain details about one or more errors produced by an XSL
 	 * transformation. 
 	 */
-	private List<String> m_errorList = new ArrayList<String>();
+	private List<XslDiagnostic> m_errorList = new ArrayList<XslDiagnostic>();
+	
+	/**
+	 * Total number of errors produced by an XSL transformation, including 
+	 * repeated errors and errors that are not within the error list.
+	 */
+	private long m_errorCount = 0;
+	
+	/**
+	 * Number of distinct errors, that are not within the error list because 
+	 * the error list reached its max size.
+	 */
+	private long m_droppedErrorCount = 0;
+	
+	/**
+	 * Whether an XSL transformation was stopped before its completion, 
+	 * because the configured number of errors occurred.
+	 */
+	private boolean m_stoppedOnError = false;
+	
+	/**
+	 * Time in nanoseconds, spent by each phase of an XSL transformation 
+	 * (for example, stylesheet compilation), in the order phases ran.
+	 */
+	private Map<String, Long> m_phaseTimingMap = new LinkedHashMap<String, Long>();
+	
+	/**
+	 * An id of the XSL stylesheet used by an XSL transformation, that is 
+	 * same for all XSL stylesheets having identical content.
+	 */
+	private String m_stylesheetId = null;
 
 	public String getResultDocumentStr() {
 		return m_resultDocumentStr;
@@ -62,12 +94,73 @@ public class XSLTransformationResult {
 		this.m_responseFormatStr = responseFormatStr;
 	}
 
-	public List<String> getErrorList() {
+	public List<XslDiagnostic> getErrorList() {
 		return m_errorList;
 	}
 
-	public void setErrorList(List<String> errorList) {
+	public void setErrorList(List<XslDiagnostic> errorList) {
 		this.m_errorList = errorList;
 	}
+	
+	/**
+	 * Method definition, to add an error that doesn't have a location 
+	 * (for example, an api request validation error).
+	 * 
+	 * @param errMesg                            An error message
+	 */
+	public void addError(String errMesg) {
+		this.m_errorList.add(new XslDiagnostic(XslDiagnostic.SEVERITY_ERROR, errMesg));
+		this.m_errorCount++;
+	}
+	
+	/**
+	 * Method definition, to check whether an XSL transformation produced 
+	 * any error. This uses the total error count, since errors may only 
+	 * be counted and not be within the error list (for example, when 
+	 * the configured max number of distinct errors is reached).
+	 */
+	public boolean hasErrors() {
+		return (m_errorCount > 0) || !m_errorList.isEmpty();
+	}
+	
+	public long getErrorCount() {
+		return m_errorCount;
+	}
+	
+	public void setErrorCount(long errorCount) {
+		this.m_errorCount = errorCount;
+	}
+	
+	public long getDroppedErrorCount() {
+		return m_droppedErrorCount;
+	}
+	
+	public void setDroppedErrorCount(long droppedErrorCount) {
+		this.m_droppedErrorCount = droppedErrorCount;
+	}
+	
+	public boolean isStoppedOnError() {
+		return m_stoppedOnError;
+	}
+	
+	public void setStoppedOnError(boolean stoppedOnError) {
+		this.m_stoppedOnError = stoppedOnError;
+	}
+	
+	public Map<String, Long> getPhaseTimingMap() {
+		return m_phaseTimingMap;
+	}
+	
+	public void addPhaseTiming(String phaseName, long elapsedNanos) {
+		this.m_phaseTimingMap.put(phaseName, elapsedNanos);
+	}
+	
+	public String getStylesheetId() {
+		return m_stylesheetId;
+	}
+	
+	public void setStylesheetId(String stylesheetId) {
+		this.m_stylesheetId = stylesheetId;
+	}
 
 }
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+/**
+ * A class definition, that encapsulates one error reported for an XSL
+ * transformation api request. Identical errors (i.e, errors having the
+ * same severity, location, error code and message) are reported once,
+ * with the number of times that error occurred.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslDiagnostic {
+
+	public static final String SEVERITY_ERROR = "error";
+
+	public static final String SEVERITY_FATAL_ERROR = "fatal error";
+
+	/**
+	 * This can have string value "error" or "fatal error".
+	 */
+	private String m_severity = null;
+
+	/**
+	 * A line number, within the XSL stylesheet or input document an error
+	 * was reported for, or -1 when not known.
+	 */
+	private int m_lineNumber = -1;
+
+	/**
+	 * A column number, within the XSL stylesheet or input document an error
+	 * was reported for, or -1 when not known.
+	 */
+	private int m_columnNumber = -1;
+
+	private String m_systemId = null;
+
+	/**
+	 * An XPath or XSLT error code (for example, "XPTY0004"), or null when
+	 * an error doesn't have an error code.
+	 */
+	private String m_errorCode = null;
+
+	private String m_message = null;
+
+	/**
+	 * Number of times this error occurred.
+	 */
+	private long m_count = 1;
+
+	/**
+	 * Class constructor.
+	 */
+	public XslDiagnostic() {
+		// no op
+	}
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param severity                           An error's severity
+	 * @param message                            An error's message
+	 */
+	public XslDiagnostic(String severity, String message) {
+		this.m_severity = severity;
+		this.m_message = message;
+	}
+
+	public String getSeverity() {
+		return m_severity;
+	}
+
+	public void setSeverity(String severity) {
+		this.m_severity = severity;
+	}
+
+	public int getLineNumber() {
+		return m_lineNumber;
+	}
+
+	public void setLineNumber(int lineNumber) {
+		this.m_lineNumber = lineNumber;
+	}
+
+	public int getColumnNumber() {
+		return m_columnNumber;
+	}
+
+	public void setColumnNumber(int columnNumber) {
+		this.m_columnNumber = columnNumber;
+	}
+
+	public String getSystemId() {
+		return m_systemId;
+	}
+
+	public void setSystemId(String systemId) {
+		this.m_systemId = systemId;
+	}
+
+	public String getErrorCode() {
+		return m_errorCode;
+	}
+
+	public void setErrorCode(String errorCode) {
+		this.m_errorCode = errorCode;
+	}
+
+	public String getMessage() {
+		return m_message;
+	}
+
+	public void setMessage(String message) {
+		this.m_message = message;
+	}
+
+	public long getCount() {
+		return m_count;
+	}
+
+	public void setCount(long count) {
+		this.m_count = count;
+	}
+
+}
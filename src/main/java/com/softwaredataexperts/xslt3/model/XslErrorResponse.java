@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class definition, that encapsulates the JSON error response of an
+ * XSL transformation api request.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslErrorResponse {
+
+	private List<XslDiagnostic> m_errors = new ArrayList<XslDiagnostic>();
+
+	/**
+	 * Total number of errors that occurred, including repeated errors and
+	 * errors that are not within the errors list.
+	 */
+	private long m_errorCount = 0;
+
+	/**
+	 * Number of distinct errors that are not within the errors list,
+	 * because the errors list reached its max size.
+	 */
+	private long m_droppedErrorCount = 0;
+
+	/**
+	 * Whether an XSL transformation was stopped before its completion,
+	 * because the configured number of errors occurred.
+	 */
+	private boolean m_stoppedOnError = false;
+
+	/**
+	 * Class constructor.
+	 */
+	public XslErrorResponse() {
+		// no op
+	}
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param xslTransformResult                 An XSL transformation result having errors
+	 */
+	public XslErrorResponse(XSLTransformationResult xslTransformResult) {
+		this.m_errors = xslTransformResult.getErrorList();
+		this.m_errorCount = xslTransformResult.getErrorCount();
+		this.m_droppedErrorCount = xslTransformResult.getDroppedErrorCount();
+		this.m_stoppedOnError = xslTransformResult.isStoppedOnError();
+	}
+
+	public List<XslDiagnostic> getErrors() {
+		return m_errors;
+	}
+
+	public void setErrors(List<XslDiagnostic> errors) {
+		this.m_errors = errors;
+	}
+
+	public long getErrorCount() {
+		return m_errorCount;
+	}
+
+	public void setErrorCount(long errorCount) {
+		this.m_errorCount = errorCount;
+	}
+
+	public long getDroppedErrorCount() {
+		return m_droppedErrorCount;
+	}
+
+	public void setDroppedErrorCount(long droppedErrorCount) {
+		this.m_droppedErrorCount = droppedErrorCount;
+	}
+
+	public boolean isStoppedOnError() {
+		return m_stoppedOnError;
+	}
+
+	public void setStoppedOnError(boolean stoppedOnError) {
+		this.m_stoppedOnError = stoppedOnError;
+	}
+
+}
@@ -0,0 +1,474 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.softwaredataexperts.xslt3.AdaptiveLimiterProperties;
+import com.softwaredataexperts.xslt3.model.ConcurrencyLimitDecision;
+import com.softwaredataexperts.xslt3.model.ConcurrencyLimiterStatus;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * A class definition, implementing an adaptive (AIMD, i.e additive
+ * increase and multiplicative decrease) limit on the number of XSL
+ * transformations that may run concurrently.
+ *
+ * The limit is increased by one, when an XSL transformation completes
+ * within a tolerance of the smoothed long term latency of the same XSL
+ * stylesheet and input size class while the limit is being used. Latency
+ * is compared per XSL stylesheet and input size class, so that an XSL
+ * stylesheet which is always slow, or one large input document, is not
+ * mistaken for congestion. An input size class spans a quarter of a
+ * power of two of uploaded bytes (i.e, sizes within a class differ by
+ * less than 19%). The limit is decreased by a backoff
+ * ratio, when an XSL transformation latency exceeds that tolerance,
+ * when old generation heap usage after a garbage collection is high,
+ * or when a long stop the world garbage collection pause is observed.
+ *
+ * This limiter doesn't reject XSL transformations. The client scheduler
+ * admits no more XSL transformations than the current limit, and admits
+ * no further XSL transformation while old generation heap usage is
+ * critical, so that requests wait within their client's queue instead.
+ * When the limit is increased, or old generation heap usage is no longer
+ * critical, a capacity listener (i.e, the client scheduler) is notified
+ * so that waiting requests are admitted at once.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Service
+public class AdaptiveConcurrencyLimiter {
+
+	private static final String REASON_INCREASE = "INCREASE";
+
+	private static final String REASON_LATENCY = "LATENCY";
+
+	private static final String REASON_HEAP_PRESSURE = "HEAP_PRESSURE";
+
+	private static final String REASON_GC_PAUSE = "GC_PAUSE";
+
+	/**
+	 * A smoothing factor of long term XSL transformation latency.
+	 */
+	private static final double LATENCY_SMOOTHING_FACTOR = 0.05;
+
+	/**
+	 * Number of input size classes, per doubling of an input size.
+	 */
+	private static final int SIZE_CLASSES_PER_DOUBLING = 4;
+
+	/**
+	 * Garbage collection notification actions, that are reported for stop
+	 * the world pauses.
+	 */
+	private static final String[] GC_PAUSE_ACTIONS = new String[] { "end of minor GC", "end of major GC", "end of GC pause" };
+
+	/**
+	 * Garbage collector name fragments, of collectors whose notifications
+	 * report a whole (mostly concurrent) collection cycle, instead of a
+	 * pause (for example, "ConcurrentMarkSweep", "G1 Concurrent GC", "ZGC
+	 * Cycles" and "Shenandoah Cycles").
+	 */
+	private static final String[] GC_CYCLE_COLLECTOR_NAMES = new String[] { "Concurrent", "Cycles" };
+
+	@Autowired
+	private AdaptiveLimiterProperties limiterProperties;
+
+	private MemoryPoolMXBean m_oldGenPool = null;
+
+	private final List<NotificationEmitter> m_notificationEmitterList = new ArrayList<NotificationEmitter>();
+
+	private final NotificationListener m_notificationListener = (notification, handback) -> handleNotification(notification);
+
+	/**
+	 * A listener, that is notified when more XSL transformations may run
+	 * concurrently. It is called while not holding this limiter's lock.
+	 */
+	private volatile Runnable m_capacityListener = null;
+
+	/**
+	 * Whether old generation heap usage was critical, after the most recent
+	 * garbage collection.
+	 */
+	private volatile boolean m_oldGenUsageCritical = false;
+
+	private int m_limit = 0;
+
+	private int m_inFlight = 0;
+
+	/**
+	 * Smoothed latency of all XSL transformations. This is reported within
+	 * this limiter's status, and is not used for limit decisions.
+	 */
+	private double m_smoothedLatencyNanos = 0;
+
+	/**
+	 * Smoothed latencies of XSL transformations, keyed by XSL stylesheet id
+	 * and input size class, with the least recently used key first.
+	 */
+	private final Map<String, LatencyBaseline> m_latencyBaselineMap = new LinkedHashMap<String, LatencyBaseline>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, LatencyBaseline> eldest) {
+			return size() > limiterProperties.getMaxTrackedStylesheets();
+		}
+	};
+
+	private long m_lastDecreaseTimeMs = 0;
+
+	private ArrayDeque<ConcurrencyLimitDecision> m_decisionHistory = new ArrayDeque<ConcurrencyLimitDecision>();
+
+	/**
+	 * Method definition, to initialize this limiter and to register for
+	 * JVM memory and garbage collection notifications.
+	 */
+	@PostConstruct
+	public void init() {
+		m_limit = limiterProperties.getInitialLimit();
+
+		List<MemoryPoolMXBean> memoryPoolList = ManagementFactory.getMemoryPoolMXBeans();
+		for (int idx = 0; idx < memoryPoolList.size(); idx++) {
+			MemoryPoolMXBean memoryPool = memoryPoolList.get(idx);
+			String poolName = memoryPool.getName();
+			if ((memoryPool.getType() == MemoryType.HEAP) && memoryPool.isCollectionUsageThresholdSupported()
+					                                      && (poolName.contains("Old Gen") || poolName.contains("Tenured"))) {
+				m_oldGenPool = memoryPool;
+				break;
+			}
+		}
+
+		if (m_oldGenPool != null) {
+			long maxBytes = getMaxBytes(m_oldGenPool.getUsage());
+			if (maxBytes > 0) {
+				m_oldGenPool.setCollectionUsageThreshold((long)(maxBytes * limiterProperties.getOldGenHighThreshold()));
+			}
+
+			NotificationEmitter memoryEmitter = (NotificationEmitter)ManagementFactory.getMemoryMXBean();
+			memoryEmitter.addNotificationListener(m_notificationListener, null, null);
+			m_notificationEmitterList.add(memoryEmitter);
+		}
+
+		List<GarbageCollectorMXBean> gcBeanList = ManagementFactory.getGarbageCollectorMXBeans();
+		for (int idx = 0; idx < gcBeanList.size(); idx++) {
+			GarbageCollectorMXBean gcBean = gcBeanList.get(idx);
+			if (gcBean instanceof NotificationEmitter) {
+				NotificationEmitter gcEmitter = (NotificationEmitter)gcBean;
+				gcEmitter.addNotificationListener(m_notificationListener, null, null);
+				m_notificationEmitterList.add(gcEmitter);
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to unregister this limiter's JVM notification
+	 * listeners.
+	 */
+	@PreDestroy
+	public void destroy() {
+		for (int idx = 0; idx < m_notificationEmitterList.size(); idx++) {
+			try {
+				(m_notificationEmitterList.get(idx)).removeNotificationListener(m_notificationListener);
+			}
+			catch (Exception ex) {
+				// no op
+			}
+		}
+
+		m_notificationEmitterList.clear();
+	}
+
+	/**
+	 * Method definition, to set a listener that is notified when more XSL
+	 * transformations may run concurrently.
+	 *
+	 * @param capacityListener                   A listener
+	 */
+	public void setCapacityListener(Runnable capacityListener) {
+		this.m_capacityListener = capacityListener;
+	}
+
+	/**
+	 * Method definition, to run an XSL transformation task, and to adapt
+	 * the concurrency limit from its latency.
+	 *
+	 * @param stylesheetId                       An id of the task's XSL stylesheet
+	 * @param inputBytes                         Total size in bytes, of the task's uploaded documents
+	 * @param task                               An XSL transformation task
+	 * @return                                   A result of XSL transformation task
+	 * @throws Exception
+	 */
+	public <T> T execute(String stylesheetId, long inputBytes, Callable<T> task) throws Exception {
+		synchronized (this) {
+			m_inFlight++;
+		}
+
+		long startNanoTime = System.nanoTime();
+		try {
+			return task.call();
+		}
+		finally {
+			if (release(stylesheetId + "/" + getSizeClass(inputBytes), System.nanoTime() - startNanoTime)) {
+				notifyCapacityListener();
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to get the current concurrency limit.
+	 *
+	 * @return                                   Max number of XSL transformations, that may
+	 *                                           run concurrently
+	 */
+	public synchronized int getLimit() {
+		return m_limit;
+	}
+
+	/**
+	 * Method definition, to find whether old generation heap usage after the
+	 * most recent garbage collection is critical. While it is critical, no
+	 * further XSL transformation should be started until a running XSL
+	 * transformation completes.
+	 *
+	 * @return                                   Boolean value true, if heap usage is critical
+	 */
+	public boolean isOldGenUsageCritical() {
+		return (getOldGenUsage(true) >= limiterProperties.getOldGenCriticalThreshold());
+	}
+
+	/**
+	 * Method definition, to get the current state of this limiter, along
+	 * with its recent limit decisions.
+	 *
+	 * @return                                   ConcurrencyLimiterStatus object instance
+	 */
+	public synchronized ConcurrencyLimiterStatus getStatus() {
+		ConcurrencyLimiterStatus limiterStatus = new ConcurrencyLimiterStatus();
+		limiterStatus.setLimit(m_limit);
+		limiterStatus.setInFlight(m_inFlight);
+		limiterStatus.setSmoothedLatencyMs(TimeUnit.NANOSECONDS.toMillis((long)m_smoothedLatencyNanos));
+		limiterStatus.setOldGenUsage(getOldGenUsage(false));
+		limiterStatus.setDecisionList(new ArrayList<ConcurrencyLimitDecision>(m_decisionHistory));
+
+		return limiterStatus;
+	}
+
+	/**
+	 * Method definition, to account a completed XSL transformation, and to
+	 * adapt the concurrency limit from its latency.
+	 *
+	 * @return                                   Boolean value true, if the limit was increased
+	 */
+	private synchronized boolean release(String baselineKey, long latencyNanos) {
+		boolean isIncreased = false;
+		int inFlightAtCompletion = m_inFlight;
+		m_inFlight--;
+
+		long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+		if (m_smoothedLatencyNanos == 0) {
+			m_smoothedLatencyNanos = latencyNanos;
+		}
+
+		// The first XSL transformation of an XSL stylesheet and input size class,
+		// only establishes its latency baseline.
+		LatencyBaseline latencyBaseline = m_latencyBaselineMap.get(baselineKey);
+		boolean isLatencyExceeded = (latencyBaseline != null) 
+				                            && (latencyNanos > (latencyBaseline.smoothedLatencyNanos * limiterProperties.getLatencyTolerance()));
+
+		if (isLatencyExceeded) {
+			decreaseLimit(REASON_LATENCY, latencyMs);
+		}
+		else if (getOldGenUsage(true) >= limiterProperties.getOldGenHighThreshold()) {
+			decreaseLimit(REASON_HEAP_PRESSURE, latencyMs);
+		}
+		else if ((inFlightAtCompletion * 2 >= m_limit) && (m_limit < limiterProperties.getMaxLimit())) {
+			// The limit is increased only when it is being used, so that an idle
+			// server doesn't accumulate a limit that was never tested.
+			recordDecision(m_limit + 1, REASON_INCREASE, latencyMs);
+			isIncreased = true;
+		}
+
+		if (latencyBaseline == null) {
+			m_latencyBaselineMap.put(baselineKey, new LatencyBaseline(latencyNanos));
+		}
+		else {
+			latencyBaseline.smoothedLatencyNanos += (LATENCY_SMOOTHING_FACTOR * (latencyNanos - latencyBaseline.smoothedLatencyNanos));
+		}
+
+		m_smoothedLatencyNanos += (LATENCY_SMOOTHING_FACTOR * (latencyNanos - m_smoothedLatencyNanos));
+
+		return isIncreased;
+	}
+
+	/**
+	 * Method definition, to get an input size class of an XSL transformation,
+	 * from the total size of its uploaded documents.
+	 */
+	private static int getSizeClass(long inputBytes) {
+		return (int)(SIZE_CLASSES_PER_DOUBLING * (Math.log(Math.max(1, inputBytes)) / Math.log(2)));
+	}
+
+	private void notifyCapacityListener() {
+		Runnable capacityListener = m_capacityListener;
+		if (capacityListener != null) {
+			capacityListener.run();
+		}
+	}
+
+	/**
+	 * Method definition, to handle JVM memory usage threshold and garbage
+	 * collection notifications.
+	 */
+	private void handleNotification(Notification notification) {
+		String notificationType = notification.getType();
+		if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notificationType)) {
+			synchronized (this) {
+				decreaseLimit(REASON_HEAP_PRESSURE, 0);
+			}
+		}
+		else if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notificationType)) {
+			GarbageCollectionNotificationInfo gcNotificationInfo = GarbageCollectionNotificationInfo.from((CompositeData)notification.getUserData());
+			long gcPauseMs = (gcNotificationInfo.getGcInfo()).getDuration();
+			if (isStopTheWorldPause(gcNotificationInfo) && (gcPauseMs >= limiterProperties.getGcPauseThresholdMs())) {
+				synchronized (this) {
+					decreaseLimit(REASON_GC_PAUSE, gcPauseMs);
+				}
+			}
+
+			boolean isOldGenUsageCritical = isOldGenUsageCritical();
+			boolean wasOldGenUsageCritical = m_oldGenUsageCritical;
+			m_oldGenUsageCritical = isOldGenUsageCritical;
+			if (wasOldGenUsageCritical && !isOldGenUsageCritical) {
+				notifyCapacityListener();
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to find whether a garbage collection notification
+	 * reports a stop the world pause. Notifications of concurrent collection
+	 * cycles report a cycle's whole duration, most of which application
+	 * threads continue to run.
+	 */
+	private boolean isStopTheWorldPause(GarbageCollectionNotificationInfo gcNotificationInfo) {
+		String gcName = gcNotificationInfo.getGcName();
+		for (int idx = 0; idx < GC_CYCLE_COLLECTOR_NAMES.length; idx++) {
+			if (gcName.contains(GC_CYCLE_COLLECTOR_NAMES[idx])) {
+				return false;
+			}
+		}
+
+		String gcAction = gcNotificationInfo.getGcAction();
+		for (int idx = 0; idx < GC_PAUSE_ACTIONS.length; idx++) {
+			if (GC_PAUSE_ACTIONS[idx].equals(gcAction)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void decreaseLimit(String reason, long latencyMs) {
+		long currentTimeMs = System.currentTimeMillis();
+		if ((currentTimeMs - m_lastDecreaseTimeMs) < limiterProperties.getDecreaseCooldownMs()) {
+			return;
+		}
+
+		int newLimit = Math.max(limiterProperties.getMinLimit(), (int)(m_limit * limiterProperties.getBackoffRatio()));
+		if (newLimit < m_limit) {
+			m_lastDecreaseTimeMs = currentTimeMs;
+			recordDecision(newLimit, reason, latencyMs);
+		}
+	}
+
+	private void recordDecision(int newLimit, String reason, long latencyMs) {
+		ConcurrencyLimitDecision limitDecision = new ConcurrencyLimitDecision(System.currentTimeMillis(), m_limit, newLimit,
+				                                                              reason, latencyMs, getOldGenUsage(false));
+		m_decisionHistory.addLast(limitDecision);
+		while (m_decisionHistory.size() > limiterProperties.getDecisionHistorySize()) {
+			m_decisionHistory.removeFirst();
+		}
+
+		m_limit = newLimit;
+	}
+
+	/**
+	 * Method definition, to get old generation heap usage as a fraction of
+	 * its max size.
+	 *
+	 * @param afterCollection                    Whether usage measured after the most recent
+	 *                                           garbage collection is used. Current usage
+	 *                                           includes garbage that is not yet collected.
+	 * @return                                   A value between 0 and 1
+	 */
+	private double getOldGenUsage(boolean afterCollection) {
+		if (m_oldGenPool == null) {
+			return 0;
+		}
+
+		MemoryUsage memoryUsage = afterCollection ? m_oldGenPool.getCollectionUsage() : m_oldGenPool.getUsage();
+		if (memoryUsage == null) {
+			return 0;
+		}
+
+		long maxBytes = getMaxBytes(memoryUsage);
+
+		return (maxBytes > 0) ? ((double)memoryUsage.getUsed() / maxBytes) : 0;
+	}
+
+	private long getMaxBytes(MemoryUsage memoryUsage) {
+		return (memoryUsage.getMax() > 0) ? memoryUsage.getMax() : memoryUsage.getCommitted();
+	}
+
+	/**
+	 * A class definition, that holds the smoothed latency of one XSL
+	 * stylesheet. An object of this class is accessed only while holding
+	 * limiter's lock.
+	 */
+	private static class LatencyBaseline {
+
+		double smoothedLatencyNanos;
+
+		LatencyBaseline(double smoothedLatencyNanos) {
+			this.smoothedLatencyNanos = smoothedLatencyNanos;
+		}
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+/**
+ * A class definition, of an exception that is thrown when an XSL
+ * transformation request is not admitted, because of api client
+ * quotas or this server's capacity.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class ClientThrottledException extends Exception {
+
+	private static final long serialVersionUID = 4611258103587412306L;
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param message                            An exception message
+	 */
+	public ClientThrottledException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,653 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.softwaredataexperts.xslt3.ClientSchedulingProperties;
+import com.softwaredataexperts.xslt3.ClientSchedulingProperties.ClientQuota;
+import com.softwaredataexperts.xslt3.StylesheetCostProperties;
+import com.softwaredataexperts.xslt3.StylesheetCostProperties.WorkerPool;
+import com.softwaredataexperts.xslt3.jfr.XslAdmissionEvent;
+import com.softwaredataexperts.xslt3.jfr.XslEvents;
+import com.softwaredataexperts.xslt3.model.ClientUtilizationStats;
+import com.softwaredataexperts.xslt3.model.CostClassPoolStats;
+import com.softwaredataexperts.xslt3.util.Constants;
+
+/**
+ * A class definition, implementing a weighted fair scheduler of XSL
+ * transformation requests, for multiple api clients.
+ *
+ * Every api client has its own queue of waiting XSL transformation
+ * requests. When an XSL transformation slot is available, a waiting
+ * request of that client is admitted which has consumed the least
+ * CPU time relative to its configured weight (i.e, a client having
+ * the smallest virtual time), and which is below its own concurrency
+ * limit. Thus a client doing a bulk run, cannot starve other clients
+ * doing interactive XSL transformations.
+ *
+ * This scheduler is the only place where XSL transformation requests
+ * wait. A request is admitted only when its XSL stylesheet's cost class
+ * has a free worker thread, so that an admitted request starts running
+ * at once, and a waiting heavy XSL transformation doesn't hold a slot
+ * needed by cheap XSL transformations. A client's waiting requests of a
+ * cost class without a free worker thread, don't block its other waiting
+ * requests. Each cost class also limits the number of its waiting
+ * requests and their wait time (i.e, its queue capacity and queue
+ * timeout), so that a backlog of heavy XSL transformations is rejected
+ * early, instead of occupying clients' queues.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Service
+public class ClientTransformationScheduler {
+
+	@Autowired
+	private ClientSchedulingProperties schedulingProperties;
+
+	@Autowired
+	private AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+
+	@Autowired
+	private StylesheetCostProperties costProperties;
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * CPU time in nanoseconds, consumed on other threads (for example, cost
+	 * class worker pool threads) by XSL transformation tasks of the current
+	 * thread.
+	 */
+	private final ThreadLocal<long[]> offloadedCpuTime = ThreadLocal.withInitial(() -> new long[1]);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition admissionCondition = lock.newCondition();
+
+	private final Map<String, ClientState> clientStateMap = new LinkedHashMap<String, ClientState>();
+
+	/**
+	 * Api clients that have waiting XSL transformation requests. Only these
+	 * clients are examined, when a waiting request is admitted.
+	 */
+	private final Set<ClientState> waitingClientSet = new LinkedHashSet<ClientState>();
+
+	/**
+	 * Time in milliseconds, when idle api clients were last forgotten.
+	 */
+	private long m_lastEvictionTimeMs = System.currentTimeMillis();
+
+	private int m_globalInFlight = 0;
+
+	/**
+	 * Number of admitted XSL transformations, and number of waiting XSL
+	 * transformation requests, keyed by cost class.
+	 */
+	private final Map<String, Integer> costClassInFlightMap = new HashMap<String, Integer>();
+
+	private final Map<String, Integer> costClassWaitingMap = new HashMap<String, Integer>();
+
+	/**
+	 * Number of XSL transformation requests rejected because of a cost class's
+	 * queue capacity, and number of XSL transformation requests rejected
+	 * because of queue timeout, keyed by cost class.
+	 */
+	private final Map<String, Long> costClassRejectedMap = new HashMap<String, Long>();
+
+	private final Map<String, Long> costClassTimedOutMap = new HashMap<String, Long>();
+
+	/**
+	 * Virtual time of a most recently admitted XSL transformation request. A
+	 * client that becomes active after being idle starts from this value, so
+	 * that it cannot claim capacity for the time during which it was idle.
+	 */
+	private double m_systemVirtualTime = 0;
+
+	/**
+	 * Method definition, to admit waiting XSL transformation requests when
+	 * the adaptive concurrency limiter permits more XSL transformations to
+	 * run, and not only when a request arrives or completes.
+	 */
+	@PostConstruct
+	public void init() {
+		adaptiveConcurrencyLimiter.setCapacityListener(() -> {
+			lock.lock();
+			try {
+				dispatch();
+			}
+			finally {
+				lock.unlock();
+			}
+		});
+	}
+
+	/**
+	 * Method definition, to identify an api client of an XSL transformation
+	 * request. Only an api key that is mapped to a client id in this server's
+	 * configuration identifies an api client. All other requests are scheduled
+	 * together as one anonymous client, so that a caller cannot claim another
+	 * client's identity, or use many identities to obtain more capacity.
+	 *
+	 * @param apiKey                             An api key request header value
+	 * @return                                   An api client's id
+	 */
+	public String resolveClientId(Optional<String> apiKey) {
+		if (apiKey.isPresent()) {
+			String clientId = (schedulingProperties.getApiKeys()).get(apiKey.get());
+			if (clientId != null) {
+				return clientId;
+			}
+		}
+
+		return Constants.ANONYMOUS_CLIENT_ID;
+	}
+
+	/**
+	 * Method definition, to run an XSL transformation task on behalf of an
+	 * api client, after that task is admitted by this scheduler.
+	 *
+	 * @param clientId                           An api client's id
+	 * @param costClass                          A cost class of the task's XSL stylesheet
+	 * @param task                               An XSL transformation task
+	 * @return                                   A result of XSL transformation task
+	 * @throws ClientThrottledException          If the task is not admitted, because of client
+	 *                                           quotas or this server's capacity
+	 * @throws Exception
+	 */
+	public <T> T execute(String clientId, String costClass, Callable<T> task) throws Exception {
+		XslAdmissionEvent admissionEvent = new XslAdmissionEvent();
+		admissionEvent.begin();
+		Ticket ticket = null;
+		try {
+			ticket = acquire(clientId, costClass);
+		}
+		finally {
+			admissionEvent.end();
+			if (admissionEvent.shouldCommit()) {
+				admissionEvent.stage = XslEvents.STAGE_CLIENT_SCHEDULER;
+				admissionEvent.clientId = clientId;
+				admissionEvent.costClass = costClass;
+				admissionEvent.admitted = (ticket != null);
+				admissionEvent.commit();
+			}
+		}
+
+		long[] offloadedCpuTimeHolder = offloadedCpuTime.get();
+		long startOffloadedCpuTime = offloadedCpuTimeHolder[0];
+		long startCpuTime = getCurrentThreadCpuTime();
+		try {
+			return task.call();
+		}
+		finally {
+			release(ticket, (getCurrentThreadCpuTime() - startCpuTime) + (offloadedCpuTimeHolder[0] - startOffloadedCpuTime));
+		}
+	}
+
+	/**
+	 * Method definition, to account CPU time that an XSL transformation task
+	 * running on the current thread, has consumed on another thread. This
+	 * CPU time is charged to the task's api client, when the task completes.
+	 *
+	 * @param cpuTimeNanos                       CPU time in nanoseconds
+	 */
+	public void addOffloadedCpuTime(long cpuTimeNanos) {
+		(offloadedCpuTime.get())[0] += cpuTimeNanos;
+	}
+
+	/**
+	 * Method definition, to get utilization and throttling statistics of all
+	 * api clients known to this scheduler.
+	 *
+	 * @return                                   A list of ClientUtilizationStats object instances
+	 */
+	public List<ClientUtilizationStats> getClientUtilizationStats() {
+		List<ClientUtilizationStats> statsList = new ArrayList<ClientUtilizationStats>();
+
+		lock.lock();
+		try {
+			long currentTimeMs = System.currentTimeMillis();
+			Iterator<ClientState> iter = (clientStateMap.values()).iterator();
+			while (iter.hasNext()) {
+				ClientState clientState = iter.next();
+				clientState.rollCpuBudgetWindow(currentTimeMs);
+
+				ClientQuota clientQuota = schedulingProperties.getClientQuota(clientState.clientId);
+
+				ClientUtilizationStats clientStats = new ClientUtilizationStats();
+				clientStats.setClientId(clientState.clientId);
+				clientStats.setWeight(clientQuota.getWeight());
+				clientStats.setMaxConcurrency(clientQuota.getMaxConcurrency());
+				clientStats.setInFlight(clientState.inFlight);
+				clientStats.setQueued(clientState.waitingQueue.size());
+				clientStats.setAdmittedCount(clientState.admittedCount);
+				clientStats.setRejectedCount(clientState.rejectedCount);
+				clientStats.setThrottledCount(clientState.throttledCount);
+				clientStats.setTotalCpuTimeMs(TimeUnit.NANOSECONDS.toMillis(clientState.totalCpuTimeNanos));
+				clientStats.setWindowCpuTimeMs(TimeUnit.NANOSECONDS.toMillis(clientState.windowCpuTimeNanos));
+				clientStats.setTotalQueueWaitMs(TimeUnit.NANOSECONDS.toMillis(clientState.totalQueueWaitNanos));
+
+				statsList.add(clientStats);
+			}
+		}
+		finally {
+			lock.unlock();
+		}
+
+		return statsList;
+	}
+
+	/**
+	 * Method definition, to set queue statistics of a cost class (i.e, the
+	 * number of its waiting XSL transformation requests, its queue limits and
+	 * its rejected request counts), on a cost class worker pool's statistics.
+	 *
+	 * @param poolStats                          A cost class worker pool's statistics, having
+	 *                                           its cost class set
+	 */
+	public void setQueueStats(CostClassPoolStats poolStats) {
+		String costClass = poolStats.getCostClass();
+		WorkerPool workerPool = costProperties.getWorkerPool(costClass);
+
+		lock.lock();
+		try {
+			poolStats.setWaiting(getCount(costClassWaitingMap, costClass));
+			poolStats.setQueueCapacity(workerPool.getQueueCapacity());
+			poolStats.setQueueTimeoutMs(getQueueTimeoutMs(costClass));
+			poolStats.setRejectedCount(getLongCount(costClassRejectedMap, costClass));
+			poolStats.setTimedOutCount(getLongCount(costClassTimedOutMap, costClass));
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method definition, to wait until an XSL transformation request of an api
+	 * client is admitted.
+	 */
+	private Ticket acquire(String clientId, String costClass) throws ClientThrottledException, InterruptedException {
+		lock.lock();
+		try {
+			long currentTimeMs = System.currentTimeMillis();
+			if ((currentTimeMs - m_lastEvictionTimeMs) >= schedulingProperties.getCpuBudgetWindowMs()) {
+				evictIdleClients(currentTimeMs);
+			}
+
+			ClientState clientState = getClientState(clientId, currentTimeMs);
+			ClientQuota clientQuota = schedulingProperties.getClientQuota(clientId);
+
+			clientState.rollCpuBudgetWindow(currentTimeMs);
+			long cpuBudgetMs = clientQuota.getCpuBudgetMs();
+			if ((cpuBudgetMs > 0) && (clientState.windowCpuTimeNanos >= TimeUnit.MILLISECONDS.toNanos(cpuBudgetMs))) {
+				clientState.throttledCount++;
+				long retryAfterMs = Math.max(0, (clientState.windowStartMs + schedulingProperties.getCpuBudgetWindowMs()) - currentTimeMs);
+				throw new ClientThrottledException("An api client '" + clientId + "' has exhausted its XSL transformation CPU "
+						                                                                + "time budget of " + cpuBudgetMs + " ms. The request may "
+						                                                                + "be retried after " + retryAfterMs + " ms.");
+			}
+
+			if (clientState.waitingQueue.size() >= schedulingProperties.getMaxQueuedPerClient()) {
+				clientState.rejectedCount++;
+				throw new ClientThrottledException("An api client '" + clientId + "' has too many XSL transformation requests "
+						                                                                + "waiting. The max number of waiting requests is "
+						                                                                + schedulingProperties.getMaxQueuedPerClient() + ".");
+			}
+
+			if ((clientState.inFlight == 0) && (clientState.waitingQueue.isEmpty())) {
+				clientState.virtualTime = Math.max(clientState.virtualTime, m_systemVirtualTime);
+			}
+
+			Ticket ticket = new Ticket(clientState, costClass);
+			clientState.waitingQueue.addLast(ticket);
+			waitingClientSet.add(clientState);
+			addCount(costClassWaitingMap, costClass, 1);
+			dispatch();
+
+			// A request that is not admitted at once, is rejected when its cost 
+			// class's queue capacity is exceeded.
+			int queueCapacity = (costProperties.getWorkerPool(costClass)).getQueueCapacity();
+			if (!ticket.admitted && costProperties.isEnabled() && (getCount(costClassWaitingMap, costClass) > queueCapacity)) {
+				removeWaitingTicket(ticket);
+				clientState.rejectedCount++;
+				addLongCount(costClassRejectedMap, costClass);
+				throw new ClientThrottledException("Too many " + costClass + " XSL transformation requests are waiting. The max "
+						                                                                + "number of waiting " + costClass + " requests is " 
+						                                                                + queueCapacity + ".");
+			}
+
+			long queueTimeoutMs = getQueueTimeoutMs(costClass);
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+			try {
+				while (!ticket.admitted) {
+					if (remainingNanos <= 0) {
+						removeWaitingTicket(ticket);
+						clientState.rejectedCount++;
+						addLongCount(costClassTimedOutMap, costClass);
+						throw new ClientThrottledException("An XSL transformation request of api client '" + clientId + "' waited "
+								                                                                + "for more than " + queueTimeoutMs
+								                                                                + " ms, and was not admitted.");
+					}
+
+					remainingNanos = admissionCondition.awaitNanos(remainingNanos);
+				}
+			}
+			catch (InterruptedException ex) {
+				if (ticket.admitted) {
+					releaseSlot(ticket, 0);
+				}
+				else {
+					removeWaitingTicket(ticket);
+				}
+
+				throw ex;
+			}
+
+			clientState.totalQueueWaitNanos += (System.nanoTime() - ticket.enqueueNanoTime);
+
+			return ticket;
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Method definition, to release an XSL transformation slot held by an
+	 * admitted request.
+	 */
+	private void release(Ticket ticket, long cpuTimeNanos) {
+		lock.lock();
+		try {
+			releaseSlot(ticket, cpuTimeNanos);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void releaseSlot(Ticket ticket, long cpuTimeNanos) {
+		ClientState clientState = ticket.clientState;
+		ClientQuota clientQuota = schedulingProperties.getClientQuota(clientState.clientId);
+
+		clientState.inFlight--;
+		m_globalInFlight--;
+		addCount(costClassInFlightMap, ticket.costClass, -1);
+
+		clientState.rollCpuBudgetWindow(System.currentTimeMillis());
+		clientState.totalCpuTimeNanos += cpuTimeNanos;
+		clientState.windowCpuTimeNanos += cpuTimeNanos;
+		clientState.virtualTime += ((double)cpuTimeNanos / Math.max(1, clientQuota.getWeight()));
+
+		dispatch();
+	}
+
+	/**
+	 * Method definition, to admit as many waiting XSL transformation requests
+	 * as the available capacity permits. The available capacity is limited
+	 * by this scheduler's configuration, by the adaptive concurrency limit
+	 * and by the number of worker threads of each cost class, and no request
+	 * is admitted while old generation heap usage is critical and any XSL
+	 * transformation is running. This method must be called while holding
+	 * this object's lock.
+	 */
+	private void dispatch() {
+		boolean isAdmitted = false;
+
+		int maxConcurrentTransforms = Math.min(schedulingProperties.getMaxConcurrentTransforms(), adaptiveConcurrencyLimiter.getLimit());
+		while (m_globalInFlight < maxConcurrentTransforms) {
+			if ((m_globalInFlight > 0) && adaptiveConcurrencyLimiter.isOldGenUsageCritical()) {
+				break;
+			}
+
+			ClientState nextClientState = null;
+			Ticket nextTicket = null;
+			Iterator<ClientState> iter = waitingClientSet.iterator();
+			while (iter.hasNext()) {
+				ClientState clientState = iter.next();
+				ClientQuota clientQuota = schedulingProperties.getClientQuota(clientState.clientId);
+				if ((clientState.inFlight < clientQuota.getMaxConcurrency()) 
+						                       && ((nextClientState == null) || (clientState.virtualTime < nextClientState.virtualTime))) {
+					Ticket ticket = getAdmissibleTicket(clientState);
+					if (ticket != null) {
+						nextClientState = clientState;
+						nextTicket = ticket;
+					}
+				}
+			}
+
+			if (nextTicket == null) {
+				break;
+			}
+
+			removeWaitingTicket(nextTicket);
+			nextTicket.admitted = true;
+			nextClientState.inFlight++;
+			nextClientState.admittedCount++;
+			m_globalInFlight++;
+			addCount(costClassInFlightMap, nextTicket.costClass, 1);
+			m_systemVirtualTime = Math.max(m_systemVirtualTime, nextClientState.virtualTime);
+			isAdmitted = true;
+		}
+
+		if (isAdmitted) {
+			admissionCondition.signalAll();
+		}
+	}
+
+	/**
+	 * Method definition, to get an api client's earliest waiting request,
+	 * whose cost class has a free worker thread, or null. This method must
+	 * be called while holding this object's lock.
+	 */
+	private Ticket getAdmissibleTicket(ClientState clientState) {
+		Iterator<Ticket> iter = (clientState.waitingQueue).iterator();
+		while (iter.hasNext()) {
+			Ticket ticket = iter.next();
+			if (!costProperties.isEnabled() 
+					            || (getCount(costClassInFlightMap, ticket.costClass) < Math.max(1, (costProperties.getWorkerPool(ticket.costClass)).getThreads()))) {
+				return ticket;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Method definition, to get the max time in milliseconds that an XSL
+	 * transformation request of a cost class may wait for admission. This is
+	 * the client scheduler's queue timeout, or a cost class's queue timeout
+	 * when that is shorter.
+	 */
+	private long getQueueTimeoutMs(String costClass) {
+		long queueTimeoutMs = schedulingProperties.getQueueTimeoutMs();
+		long costClassQueueTimeoutMs = (costProperties.getWorkerPool(costClass)).getQueueTimeoutMs();
+		if (costProperties.isEnabled() && (costClassQueueTimeoutMs > 0)) {
+			queueTimeoutMs = Math.min(queueTimeoutMs, costClassQueueTimeoutMs);
+		}
+
+		return queueTimeoutMs;
+	}
+
+	private static int getCount(Map<String, Integer> countMap, String key) {
+		Integer count = countMap.get(key);
+
+		return (count != null) ? count.intValue() : 0;
+	}
+
+	private static void addCount(Map<String, Integer> countMap, String key, int delta) {
+		int count = getCount(countMap, key) + delta;
+		if (count == 0) {
+			countMap.remove(key);
+		}
+		else {
+			countMap.put(key, count);
+		}
+	}
+
+	private static long getLongCount(Map<String, Long> countMap, String key) {
+		Long count = countMap.get(key);
+
+		return (count != null) ? count.longValue() : 0;
+	}
+
+	private static void addLongCount(Map<String, Long> countMap, String key) {
+		countMap.put(key, getLongCount(countMap, key) + 1);
+	}
+
+	private ClientState getClientState(String clientId, long currentTimeMs) throws ClientThrottledException {
+		ClientState clientState = clientStateMap.get(clientId);
+		if (clientState == null) {
+			if (clientStateMap.size() >= schedulingProperties.getMaxTrackedClients()) {
+				evictIdleClients(currentTimeMs);
+				if (clientStateMap.size() >= schedulingProperties.getMaxTrackedClients()) {
+					throw new ClientThrottledException("This server is scheduling XSL transformations for the max number of api clients ("
+							                                                                + schedulingProperties.getMaxTrackedClients() + "). The "
+							                                                                + "request may be retried later.");
+				}
+			}
+
+			clientState = new ClientState(clientId);
+			clientStateMap.put(clientId, clientState);
+		}
+
+		return clientState;
+	}
+
+	/**
+	 * Method definition, to forget the scheduling state of api clients that
+	 * have no waiting or running XSL transformations, and whose CPU time
+	 * budget window has ended. A forgotten client that becomes active again,
+	 * starts from the system virtual time, as any client returning from an
+	 * idle period does. This method must be called while holding this
+	 * object's lock.
+	 */
+	private void evictIdleClients(long currentTimeMs) {
+		Iterator<ClientState> iter = (clientStateMap.values()).iterator();
+		while (iter.hasNext()) {
+			ClientState clientState = iter.next();
+			clientState.rollCpuBudgetWindow(currentTimeMs);
+			if ((clientState.inFlight == 0) && (clientState.waitingQueue).isEmpty() && (clientState.windowCpuTimeNanos == 0)) {
+				iter.remove();
+			}
+		}
+
+		m_lastEvictionTimeMs = currentTimeMs;
+	}
+
+	/**
+	 * Method definition, to remove a ticket that is not admitted, from its
+	 * api client's queue. This method must be called while holding this
+	 * object's lock.
+	 */
+	private void removeWaitingTicket(Ticket ticket) {
+		ClientState clientState = ticket.clientState;
+		(clientState.waitingQueue).remove(ticket);
+		if ((clientState.waitingQueue).isEmpty()) {
+			waitingClientSet.remove(clientState);
+		}
+		addCount(costClassWaitingMap, ticket.costClass, -1);
+	}
+
+	private long getCurrentThreadCpuTime() {
+		if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+			return threadMXBean.getCurrentThreadCpuTime();
+		}
+
+		return System.nanoTime();
+	}
+
+	/**
+	 * A class definition, that holds scheduling state of one api client. An
+	 * object of this class is accessed only while holding scheduler's lock.
+	 */
+	private class ClientState {
+
+		final String clientId;
+
+		final ArrayDeque<Ticket> waitingQueue = new ArrayDeque<Ticket>();
+
+		int inFlight = 0;
+
+		double virtualTime = 0;
+
+		long windowStartMs = System.currentTimeMillis();
+
+		long windowCpuTimeNanos = 0;
+
+		long totalCpuTimeNanos = 0;
+
+		long totalQueueWaitNanos = 0;
+
+		long admittedCount = 0;
+
+		long rejectedCount = 0;
+
+		long throttledCount = 0;
+
+		ClientState(String clientId) {
+			this.clientId = clientId;
+		}
+
+		void rollCpuBudgetWindow(long currentTimeMs) {
+			if ((currentTimeMs - windowStartMs) >= schedulingProperties.getCpuBudgetWindowMs()) {
+				windowStartMs = currentTimeMs;
+				windowCpuTimeNanos = 0;
+			}
+		}
+	}
+
+	/**
+	 * A class definition, representing one XSL transformation request waiting
+	 * for admission, or holding an XSL transformation slot.
+	 */
+	private static class Ticket {
+
+		final ClientState clientState;
+
+		final String costClass;
+
+		final long enqueueNanoTime = System.nanoTime();
+
+		boolean admitted = false;
+
+		Ticket(ClientState clientState, String costClass) {
+			this.clientState = clientState;
+			this.costClass = costClass;
+		}
+	}
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.softwaredataexperts.xslt3.StylesheetCostProperties;
+import com.softwaredataexperts.xslt3.StylesheetCostProperties.WorkerPool;
+import com.softwaredataexperts.xslt3.model.CostClassPoolStats;
+import com.softwaredataexperts.xslt3.model.StylesheetCostStatus;
+
+/**
+ * A class definition, that runs XSL transformations within a bounded
+ * worker pool of their XSL stylesheet's cost class. Thus XSL
+ * transformations of heavy XSL stylesheets, cannot occupy all threads
+ * available to XSL transformations of cheap XSL stylesheets.
+ *
+ * XSL transformation requests wait only within the client scheduler,
+ * which admits at most as many XSL transformations of a cost class as
+ * its worker pool has threads, and which applies each cost class's queue
+ * capacity and queue timeout. Therefore a worker pool's queue is bounded
+ * by its number of threads, a worker pool never rejects an admitted XSL
+ * transformation, and an XSL transformation waits within a worker pool's
+ * queue only until a worker thread that has just completed its previous
+ * XSL transformation, takes it. An XSL transformation that
+ * has started is never abandoned, since Xalan-J XSL transformations
+ * cannot be reliably interrupted. CPU time consumed by a worker thread,
+ * is charged to the api client of its XSL transformation request.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Service
+public class CostClassWorkerPools {
+
+	private static final int TASK_QUEUED = 0;
+
+	private static final int TASK_RUNNING = 1;
+
+	private static final int TASK_ABANDONED = 2;
+
+	/**
+	 * Max number of XSL stylesheets, listed within cost classification
+	 * status.
+	 */
+	private static final int MAX_LISTED_STYLESHEETS = 100;
+
+	@Autowired
+	private StylesheetCostProperties costProperties;
+
+	@Autowired
+	private StylesheetCostClassifier stylesheetCostClassifier;
+
+	@Autowired
+	private ClientTransformationScheduler clientTransformationScheduler;
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	private CostClassPool m_cheapPool = null;
+
+	private CostClassPool m_heavyPool = null;
+
+	/**
+	 * Method definition, to start the worker pools of all cost classes.
+	 */
+	@PostConstruct
+	public void init() {
+		if (costProperties.isEnabled()) {
+			m_cheapPool = new CostClassPool(StylesheetCostProperties.CHEAP);
+			m_heavyPool = new CostClassPool(StylesheetCostProperties.HEAVY);
+		}
+	}
+
+	/**
+	 * Method definition, to stop the worker pools of all cost classes.
+	 * XSL transformations that are running, are allowed to complete.
+	 */
+	@PreDestroy
+	public void destroy() {
+		if (m_cheapPool != null) {
+			(m_cheapPool.executor).shutdown();
+		}
+
+		if (m_heavyPool != null) {
+			(m_heavyPool.executor).shutdown();
+		}
+	}
+
+	/**
+	 * Method definition, to run an XSL transformation task within the
+	 * worker pool of a cost class, and to wait for its result. When cost
+	 * classification is disabled, the task runs within the current thread.
+	 *
+	 * @param costClass                          A cost class
+	 * @param task                               An XSL transformation task
+	 * @return                                   A result of XSL transformation task
+	 * @throws ClientThrottledException          If the task is rejected, because this server is
+	 *                                           shutting down
+	 * @throws Exception
+	 */
+	public <T> T execute(String costClass, Callable<T> task) throws Exception {
+		CostClassPool costClassPool = (StylesheetCostProperties.HEAVY).equals(costClass) ? m_heavyPool : m_cheapPool;
+		if (costClassPool == null) {
+			return task.call();
+		}
+
+		WorkerTask<T> workerTask = new WorkerTask<T>(task, costClassPool);
+		FutureTask<T> futureTask = new FutureTask<T>(workerTask);
+		try {
+			(costClassPool.executor).execute(futureTask);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new ClientThrottledException("This server is not accepting " + costClassPool.costClass + " XSL transformations, "
+					                                                               + "since it is shutting down.");
+		}
+
+		try {
+			return futureTask.get();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception)cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+
+			throw ex;
+		}
+		catch (InterruptedException ex) {
+			if ((workerTask.state).compareAndSet(TASK_QUEUED, TASK_ABANDONED)) {
+				(costClassPool.executor).remove(futureTask);
+				
+				throw ex;
+			}
+
+			// The task is running, and cannot be stopped. It keeps its api client's 
+			// scheduler slot until it completes, and its CPU time is charged then.
+			awaitCompletion(futureTask);
+			(Thread.currentThread()).interrupt();
+
+			throw ex;
+		}
+		finally {
+			clientTransformationScheduler.addOffloadedCpuTime(workerTask.cpuTimeNanos);
+		}
+	}
+
+	/**
+	 * Method definition, to get the current state of all cost class worker
+	 * pools, along with the observed cost of most costly XSL stylesheets.
+	 *
+	 * @return                                   StylesheetCostStatus object instance
+	 */
+	public StylesheetCostStatus getStatus() {
+		StylesheetCostStatus costStatus = new StylesheetCostStatus();
+		costStatus.setEnabled(costProperties.isEnabled());
+
+		List<CostClassPoolStats> poolStatsList = new ArrayList<CostClassPoolStats>();
+		if (m_cheapPool != null) {
+			poolStatsList.add(m_cheapPool.getStats());
+		}
+
+		if (m_heavyPool != null) {
+			poolStatsList.add(m_heavyPool.getStats());
+		}
+
+		costStatus.setPoolList(poolStatsList);
+		costStatus.setTrackedStylesheetCount(stylesheetCostClassifier.getTrackedStylesheetCount());
+		costStatus.setStylesheetList(stylesheetCostClassifier.getStylesheetCostStats(MAX_LISTED_STYLESHEETS));
+
+		return costStatus;
+	}
+
+	/**
+	 * Method definition, to wait until a running task completes, ignoring
+	 * interrupts of the current thread.
+	 */
+	private void awaitCompletion(FutureTask<?> futureTask) {
+		while (!futureTask.isDone()) {
+			try {
+				futureTask.get();
+			}
+			catch (InterruptedException ex) {
+				// retry
+			}
+			catch (ExecutionException ex) {
+				return;
+			}
+		}
+	}
+
+	private long getCurrentThreadCpuTime() {
+		if (threadMXBean.isCurrentThreadCpuTimeSupported()) {
+			return threadMXBean.getCurrentThreadCpuTime();
+		}
+
+		return System.nanoTime();
+	}
+
+	/**
+	 * A class definition, that holds the worker threads and the statistics
+	 * of one cost class.
+	 */
+	private class CostClassPool {
+
+		final String costClass;
+
+		final ThreadPoolExecutor executor;
+
+		final AtomicLong completedCount = new AtomicLong();
+
+		CostClassPool(String costClass) {
+			this.costClass = costClass;
+
+			WorkerPool workerPool = costProperties.getWorkerPool(costClass);
+			int threads = Math.max(1, workerPool.getThreads());
+			AtomicInteger threadCount = new AtomicInteger();
+			this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, 
+					                               new ArrayBlockingQueue<Runnable>(threads), 
+					                               (runnable) -> new Thread(runnable, "xsl3-" + costClass + "-worker-" 
+					                                                                  + threadCount.incrementAndGet()));
+		}
+
+		CostClassPoolStats getStats() {
+			CostClassPoolStats poolStats = new CostClassPoolStats();
+			poolStats.setCostClass(costClass);
+			poolStats.setThreads(executor.getMaximumPoolSize());
+			poolStats.setActive(executor.getActiveCount());
+			poolStats.setCompletedCount(completedCount.get());
+			clientTransformationScheduler.setQueueStats(poolStats);
+
+			return poolStats;
+		}
+	}
+
+	/**
+	 * A class definition, that runs an XSL transformation task within a
+	 * worker thread, unless that task has been abandoned while it was
+	 * queued.
+	 */
+	private class WorkerTask<T> implements Callable<T> {
+
+		final Callable<T> task;
+
+		final CostClassPool costClassPool;
+
+		final AtomicInteger state = new AtomicInteger(TASK_QUEUED);
+
+		/**
+		 * CPU time in nanoseconds consumed by the task. This is written
+		 * before the task's result is available to a waiting thread.
+		 */
+		volatile long cpuTimeNanos = 0;
+
+		WorkerTask(Callable<T> task, CostClassPool costClassPool) {
+			this.task = task;
+			this.costClassPool = costClassPool;
+		}
+
+		@Override
+		public T call() throws Exception {
+			if (!state.compareAndSet(TASK_QUEUED, TASK_RUNNING)) {
+				return null;
+			}
+
+			long startCpuTime = getCurrentThreadCpuTime();
+			try {
+				return task.call();
+			}
+			finally {
+				cpuTimeNanos = getCurrentThreadCpuTime() - startCpuTime;
+				(costClassPool.completedCount).incrementAndGet();
+			}
+		}
+	}
+
+}
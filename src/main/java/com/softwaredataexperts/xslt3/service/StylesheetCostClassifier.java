@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.softwaredataexperts.xslt3.StylesheetCostProperties;
+import com.softwaredataexperts.xslt3.model.StylesheetCostStats;
+
+/**
+ * A class definition, that classifies XSL stylesheets as "cheap" or
+ * "heavy", from XSL transformation time and heap allocation per uploaded
+ * document byte, observed for each XSL stylesheet.
+ *
+ * An XSL stylesheet is classified heavy, when either of its exponentially
+ * weighted averages reaches its configured threshold. A heavy XSL
+ * stylesheet is classified cheap again, only when both of its averages
+ * fall below a fraction of those thresholds, so that an XSL stylesheet
+ * whose cost is near a threshold doesn't alternate between cost classes.
+ * XSL stylesheets whose cost class is specified by this server's
+ * configuration, are never reclassified.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Service
+public class StylesheetCostClassifier {
+
+	@Autowired
+	private StylesheetCostProperties costProperties;
+
+	private final com.sun.management.ThreadMXBean m_threadMXBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+	/**
+	 * XSL stylesheets' observed cost, keyed by XSL stylesheet id, with
+	 * the least recently used XSL stylesheet first.
+	 */
+	private final Map<String, StylesheetCost> m_stylesheetCostMap = new LinkedHashMap<String, StylesheetCost>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, StylesheetCost> eldest) {
+			return size() > costProperties.getMaxTrackedStylesheets();
+		}
+	};
+
+	/**
+	 * Method definition, to get the cost class of an XSL stylesheet.
+	 *
+	 * @param stylesheetId                       An XSL stylesheet id
+	 * @return                                   StylesheetCostProperties.CHEAP or
+	 *                                           StylesheetCostProperties.HEAVY
+	 */
+	public String classify(String stylesheetId) {
+		String overrideClass = getOverrideClass(stylesheetId);
+		if (overrideClass != null) {
+			return overrideClass;
+		}
+
+		synchronized (this) {
+			StylesheetCost stylesheetCost = m_stylesheetCostMap.get(stylesheetId);
+			if (stylesheetCost != null) {
+				return stylesheetCost.costClass;
+			}
+		}
+
+		return getDefaultClass();
+	}
+
+	/**
+	 * Method definition, to record the cost of an XSL transformation that
+	 * has completed, and to reclassify its XSL stylesheet if needed.
+	 *
+	 * @param stylesheetId                       An XSL stylesheet id
+	 * @param inputBytes                         Total size of an XSL transformation's uploaded
+	 *                                           documents
+	 * @param elapsedNanos                       An XSL transformation's time in nanoseconds
+	 * @param allocatedBytes                     Heap bytes allocated by an XSL transformation, or -1
+	 *                                           when heap allocation is not measured
+	 */
+	public synchronized void recordTransformation(String stylesheetId, long inputBytes, long elapsedNanos, long allocatedBytes) {
+		StylesheetCost stylesheetCost = m_stylesheetCostMap.get(stylesheetId);
+		if (stylesheetCost == null) {
+			stylesheetCost = new StylesheetCost(getDefaultClass());
+			m_stylesheetCostMap.put(stylesheetId, stylesheetCost);
+		}
+
+		double smoothingFactor = costProperties.getSmoothingFactor();
+		if (stylesheetCost.transformCount == 0) {
+			stylesheetCost.avgTransformNanos = elapsedNanos;
+		}
+		else {
+			stylesheetCost.avgTransformNanos += (smoothingFactor * (elapsedNanos - stylesheetCost.avgTransformNanos));
+		}
+
+		if (allocatedBytes >= 0) {
+			double allocatedBytesPerInputByte = (double)allocatedBytes / Math.max(1, inputBytes);
+			if (stylesheetCost.avgAllocatedBytesPerInputByte < 0) {
+				stylesheetCost.avgAllocatedBytesPerInputByte = allocatedBytesPerInputByte;
+			}
+			else {
+				stylesheetCost.avgAllocatedBytesPerInputByte += (smoothingFactor * (allocatedBytesPerInputByte
+						                                                            - stylesheetCost.avgAllocatedBytesPerInputByte));
+			}
+		}
+
+		stylesheetCost.transformCount++;
+
+		String costClass = evaluateCostClass(stylesheetCost);
+		if (!costClass.equals(stylesheetCost.costClass)) {
+			stylesheetCost.costClass = costClass;
+			stylesheetCost.reclassifiedCount++;
+		}
+	}
+
+	/**
+	 * Method definition, to get a measurement of heap memory allocated by
+	 * the current thread so far. A difference of two such measurements
+	 * taken on the same thread, is the memory allocated in between. This
+	 * measurement doesn't depend upon any other feature (for example, traffic
+	 * capture) being enabled.
+	 *
+	 * @return                                   Allocated bytes, or -1 if this measurement
+	 *                                           is not supported by the JVM
+	 */
+	public long getCurrentThreadAllocatedBytes() {
+		if (!m_threadMXBean.isThreadAllocatedMemorySupported() || !m_threadMXBean.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+
+		return m_threadMXBean.getThreadAllocatedBytes((Thread.currentThread()).getId());
+	}
+
+	/**
+	 * Method definition, to get the number of XSL stylesheets whose cost is
+	 * remembered.
+	 *
+	 * @return                                   Number of XSL stylesheets
+	 */
+	public synchronized int getTrackedStylesheetCount() {
+		return m_stylesheetCostMap.size();
+	}
+
+	/**
+	 * Method definition, to get the observed cost of XSL stylesheets having
+	 * the largest average XSL transformation time.
+	 *
+	 * @param maxCount                           Max number of XSL stylesheets returned
+	 * @return                                   A list of StylesheetCostStats object instances,
+	 *                                           with the most costly XSL stylesheet first
+	 */
+	public List<StylesheetCostStats> getStylesheetCostStats(int maxCount) {
+		List<StylesheetCostStats> statsList = new ArrayList<StylesheetCostStats>();
+
+		synchronized (this) {
+			Iterator<Map.Entry<String, StylesheetCost>> iter = (m_stylesheetCostMap.entrySet()).iterator();
+			while (iter.hasNext()) {
+				Map.Entry<String, StylesheetCost> mapEntry = iter.next();
+				StylesheetCost stylesheetCost = mapEntry.getValue();
+
+				StylesheetCostStats stylesheetStats = new StylesheetCostStats();
+				stylesheetStats.setStylesheetId(mapEntry.getKey());
+				stylesheetStats.setTransformCount(stylesheetCost.transformCount);
+				stylesheetStats.setAvgTransformMs(TimeUnit.NANOSECONDS.toMillis((long)stylesheetCost.avgTransformNanos));
+				stylesheetStats.setAvgAllocatedBytesPerInputByte((long)stylesheetCost.avgAllocatedBytesPerInputByte);
+				stylesheetStats.setCostClass(stylesheetCost.costClass);
+				stylesheetStats.setReclassifiedCount(stylesheetCost.reclassifiedCount);
+
+				statsList.add(stylesheetStats);
+			}
+		}
+
+		Collections.sort(statsList, (stats1, stats2) -> Long.compare(stats2.getAvgTransformMs(), stats1.getAvgTransformMs()));
+		if (statsList.size() > maxCount) {
+			statsList = new ArrayList<StylesheetCostStats>(statsList.subList(0, maxCount));
+		}
+
+		for (int idx = 0; idx < statsList.size(); idx++) {
+			StylesheetCostStats stylesheetStats = statsList.get(idx);
+			String overrideClass = getOverrideClass(stylesheetStats.getStylesheetId());
+			if (overrideClass != null) {
+				stylesheetStats.setCostClass(overrideClass);
+				stylesheetStats.setOverridden(true);
+			}
+		}
+
+		return statsList;
+	}
+
+	/**
+	 * Method definition, to get an XSL stylesheet's cost class from its
+	 * observed cost and its current cost class.
+	 */
+	private String evaluateCostClass(StylesheetCost stylesheetCost) {
+		double heavyTransformNanos = TimeUnit.MILLISECONDS.toNanos(costProperties.getHeavyTransformMs());
+		double heavyAllocatedBytesPerInputByte = costProperties.getHeavyAllocatedBytesPerInputByte();
+
+		if ((StylesheetCostProperties.HEAVY).equals(stylesheetCost.costClass)) {
+			double demotionRatio = costProperties.getDemotionRatio();
+			boolean isCheap = ((heavyTransformNanos <= 0) || (stylesheetCost.avgTransformNanos < (heavyTransformNanos * demotionRatio)))
+					                  && ((heavyAllocatedBytesPerInputByte <= 0) || (stylesheetCost.avgAllocatedBytesPerInputByte
+					                		                                          < (heavyAllocatedBytesPerInputByte * demotionRatio)));
+
+			return isCheap ? StylesheetCostProperties.CHEAP : StylesheetCostProperties.HEAVY;
+		}
+
+		boolean isHeavy = ((heavyTransformNanos > 0) && (stylesheetCost.avgTransformNanos >= heavyTransformNanos))
+				                  || ((heavyAllocatedBytesPerInputByte > 0) && (stylesheetCost.avgAllocatedBytesPerInputByte
+				                		                                         >= heavyAllocatedBytesPerInputByte));
+
+		return isHeavy ? StylesheetCostProperties.HEAVY : StylesheetCostProperties.CHEAP;
+	}
+
+	/**
+	 * Method definition, to get the cost class of an XSL stylesheet as
+	 * specified by this server's configuration, or null.
+	 */
+	private String getOverrideClass(String stylesheetId) {
+		return toCostClass((costProperties.getOverrides()).get(stylesheetId));
+	}
+
+	private String getDefaultClass() {
+		String costClass = toCostClass(costProperties.getDefaultClass());
+
+		return (costClass != null) ? costClass : StylesheetCostProperties.CHEAP;
+	}
+
+	private String toCostClass(String costClassStr) {
+		if ((StylesheetCostProperties.HEAVY).equalsIgnoreCase(costClassStr)) {
+			return StylesheetCostProperties.HEAVY;
+		}
+		else if ((StylesheetCostProperties.CHEAP).equalsIgnoreCase(costClassStr)) {
+			return StylesheetCostProperties.CHEAP;
+		}
+
+		return null;
+	}
+
+	/**
+	 * A class definition, that holds the observed cost of one XSL stylesheet.
+	 * An object of this class is accessed only while holding classifier's
+	 * lock.
+	 */
+	private static class StylesheetCost {
+
+		String costClass;
+
+		long transformCount = 0;
+
+		double avgTransformNanos = 0;
+
+		double avgAllocatedBytesPerInputByte = -1;
+
+		long reclassifiedCount = 0;
+
+		StylesheetCost(String costClass) {
+			this.costClass = costClass;
+		}
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.service;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.softwaredataexperts.xslt3.TrafficCaptureProperties;
+import com.softwaredataexperts.xslt3.model.XSLTransformationResult;
+import com.softwaredataexperts.xslt3.util.XslTransformRequestRecord;
+
+/**
+ * A class definition, implementing an opt-in capture of slow or memory
+ * heavy XSL transformation requests.
+ *
+ * A sampled XSL transformation request, whose latency or heap allocation
+ * exceeds a configured threshold, is stored (with its stylesheet, input
+ * document, auxiliary document, options and phase timings) within a
+ * capture directory, that retains a bounded number of most recent
+ * captures. Captured requests are stored in the layout read by
+ * XslTransformRequestRecord, so that they can be replayed offline or
+ * added to a load test traffic corpus.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+@Service
+public class TrafficCaptureService {
+
+	public static final String LATENCY_MS_KEY = "capture.latency.ms";
+
+	public static final String ALLOCATED_BYTES_KEY = "capture.allocated.bytes";
+
+	public static final String CAPTURED_AT_KEY = "capture.captured.at";
+
+	public static final String ERROR_COUNT_KEY = "capture.error.count";
+
+	public static final String PHASE_KEY_PREFIX = "capture.phase.";
+
+	private static final String CAPTURE_DIR_PREFIX = "capture-";
+
+	/**
+	 * Max number of captured requests, that may wait to be written to disk.
+	 * Captures exceeding this number are dropped.
+	 */
+	private static final int WRITE_QUEUE_SIZE = 4;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TrafficCaptureService.class);
+
+	@Autowired
+	private TrafficCaptureProperties captureProperties;
+
+	private ThreadPoolExecutor m_writeExecutor = null;
+
+	private final ArrayDeque<File> m_captureDirQueue = new ArrayDeque<File>();
+
+	private final AtomicLong m_captureSeq = new AtomicLong();
+
+	/**
+	 * Method definition, to initialize this service, including captures
+	 * retained from an earlier run.
+	 */
+	@PostConstruct
+	public void init() {
+		m_writeExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(WRITE_QUEUE_SIZE),
+				                                 runnable -> {
+				                                	 Thread thread = new Thread(runnable, "xsl3-traffic-capture");
+				                                	 thread.setDaemon(true);
+				                                	 return thread;
+				                                 });
+
+		File[] captureDirArr = (new File(captureProperties.getDir())).listFiles();
+		if (captureDirArr != null) {
+			Arrays.sort(captureDirArr);
+			for (int idx = 0; idx < captureDirArr.length; idx++) {
+				if ((captureDirArr[idx].getName()).startsWith(CAPTURE_DIR_PREFIX)) {
+					m_captureDirQueue.addLast(captureDirArr[idx]);
+				}
+			}
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		m_writeExecutor.shutdown();
+	}
+
+	/**
+	 * Method definition, to capture an XSL transformation request, if
+	 * capture is enabled, the request is sampled, and the request exceeds
+	 * the latency or allocation threshold.
+	 *
+	 * @param xmlFile							 Reference to XML document uploaded
+	 * @param xslFile                            Reference to an XSL stylesheet document uploaded
+	 * @param auxFile                            Reference to an auxiliary document file uploaded
+	 * @param optionMap                          XSL transformation options, keyed by api request
+	 *                                           parameter names
+	 * @param xslTransformResult                 An XSL transformation's result, or null if the
+	 *                                           XSL transformation threw an exception
+	 * @param latencyNanos                       An XSL transformation's latency
+	 * @param allocatedBytes                     Heap memory allocated by an XSL transformation,
+	 *                                           or -1 if this is not known
+	 */
+	public void captureIfThresholdExceeded(Optional<MultipartFile> xmlFile, MultipartFile xslFile, Optional<MultipartFile> auxFile,
+			                               Map<String, Optional<String>> optionMap, XSLTransformationResult xslTransformResult,
+			                               long latencyNanos, long allocatedBytes) {
+		if (!captureProperties.isEnabled() || (ThreadLocalRandom.current().nextDouble() >= captureProperties.getSampleRate())) {
+			return;
+		}
+
+		long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+		boolean isLatencyExceeded = (latencyMs >= captureProperties.getLatencyThresholdMs());
+		boolean isAllocationExceeded = (allocatedBytes >= 0) && ((allocatedBytes / (1024 * 1024)) >= captureProperties.getAllocationThresholdMb());
+		if (!isLatencyExceeded && !isAllocationExceeded) {
+			return;
+		}
+
+		XslTransformRequestRecord requestRecord = new XslTransformRequestRecord();
+		try {
+			requestRecord.setXslFile(xslFile.getOriginalFilename(), xslFile.getBytes());
+			if (xmlFile.isPresent()) {
+				requestRecord.setXmlFile((xmlFile.get()).getOriginalFilename(), (xmlFile.get()).getBytes());
+				requestRecord.setProperty(XslTransformRequestRecord.XML_FILE_CONTENT_TYPE_KEY, (xmlFile.get()).getContentType());
+			}
+			if (auxFile.isPresent()) {
+				requestRecord.setAuxFile((auxFile.get()).getOriginalFilename(), (auxFile.get()).getBytes());
+			}
+		}
+		catch (Exception ex) {
+			LOGGER.warn("An XSL transformation request could not be captured : " + ex.getMessage());
+
+			return;
+		}
+
+		Iterator<Map.Entry<String, Optional<String>>> optionIter = (optionMap.entrySet()).iterator();
+		while (optionIter.hasNext()) {
+			Map.Entry<String, Optional<String>> optionEntry = optionIter.next();
+			requestRecord.setProperty(optionEntry.getKey(), (optionEntry.getValue()).orElse(null));
+		}
+
+		requestRecord.setProperty(LATENCY_MS_KEY, String.valueOf(latencyMs));
+		requestRecord.setProperty(ALLOCATED_BYTES_KEY, String.valueOf(allocatedBytes));
+		requestRecord.setProperty(CAPTURED_AT_KEY, (new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ")).format(new Date()));
+		if (xslTransformResult != null) {
+			requestRecord.setProperty(ERROR_COUNT_KEY, String.valueOf(xslTransformResult.getErrorCount()));
+			Iterator<Map.Entry<String, Long>> phaseIter = ((xslTransformResult.getPhaseTimingMap()).entrySet()).iterator();
+			while (phaseIter.hasNext()) {
+				Map.Entry<String, Long> phaseEntry = phaseIter.next();
+				requestRecord.setProperty(PHASE_KEY_PREFIX + phaseEntry.getKey() + ".ms",
+						                  String.valueOf(TimeUnit.NANOSECONDS.toMillis(phaseEntry.getValue())));
+			}
+		}
+
+		String captureDirName = CAPTURE_DIR_PREFIX + (new SimpleDateFormat("yyyyMMdd-HHmmss-SSS")).format(new Date())
+		                                           + "-" + m_captureSeq.incrementAndGet();
+		final File captureDir = new File(captureProperties.getDir(), captureDirName);
+		try {
+			m_writeExecutor.execute(() -> writeCapture(requestRecord, captureDir));
+		}
+		catch (RejectedExecutionException ex) {
+			LOGGER.warn("An XSL transformation request capture was dropped, since earlier captures are still being written.");
+		}
+	}
+
+	/**
+	 * Method definition, to write a captured request to disk, and to delete
+	 * the oldest captured requests exceeding the configured max number. This
+	 * method runs on the single capture writer thread.
+	 */
+	private void writeCapture(XslTransformRequestRecord requestRecord, File captureDir) {
+		try {
+			requestRecord.write(captureDir);
+			m_captureDirQueue.addLast(captureDir);
+		}
+		catch (Exception ex) {
+			LOGGER.warn("An XSL transformation request capture could not be written : " + ex.getMessage());
+			deleteRecursively(captureDir);
+		}
+
+		while (m_captureDirQueue.size() > Math.max(0, captureProperties.getMaxEntries())) {
+			deleteRecursively(m_captureDirQueue.removeFirst());
+		}
+	}
+
+	private void deleteRecursively(File file) {
+		File[] fileArr = file.listFiles();
+		if (fileArr != null) {
+			for (int idx = 0; idx < fileArr.length; idx++) {
+				deleteRecursively(fileArr[idx]);
+			}
+		}
+
+		file.delete();
+	}
+
+}
@@ -17,13 +17,20 @@
 package com.softwaredataexperts.xslt3.service;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.softwaredataexperts.xslt3.DiagnosticsProperties;
+import com.softwaredataexperts.xslt3.jfr.XslEvents;
 import com.softwaredataexperts.xslt3.model.XSLTransformationResult;
 import com.softwaredataexperts.xslt3.util.XSLTransformUtil;
+import com.softwaredataexperts.xslt3.util.XslResultDocumentHandler;
+import com.softwaredataexperts.xslt3.util.XslTransformRequestRecord;
 
 /**
  * A class definition, specifying a service class used by REST 
@@ -33,11 +40,31 @@ import com.softwaredataexperts.xslt3.util.XSLTransformUtil;
  */
 @Service
 public class XSLTransformationService extends XSLTransformUtil {
+	
+	@Autowired
+	private AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+	
+	@Autowired
+	private TrafficCaptureService trafficCaptureService;
+	
+	@Autowired
+	private DiagnosticsProperties diagnosticsProperties;
+	
+	@Autowired
+	private StylesheetCostClassifier stylesheetCostClassifier;
+	
+	@Autowired
+	private CostClassWorkerPools costClassWorkerPools;
+	
+	@Autowired
+	private ClientTransformationScheduler clientTransformationScheduler;
 
 	/**
 	 * Method definition, to invoke an XSL transformation by Apache Xalan 
 	 * XSLT 3.0 development code.
 	 * 
+	 * @param clientId                           An api client's id, on whose behalf the XSL 
+	 *                                           transformation is scheduled
 	 * @param xmlFile							 Reference to XML document uploaded
 	 * @param xslFile                            Reference to an XSL stylesheet document uploaded 
 	 * @param auxFile                            Reference to an auxiliary document file uploaded 
@@ -48,17 +75,96 @@ public class XSLTransformationService extends XSLTransformUtil {
 	 * @param enableXslEvaluate                  Boolean value true or false, whether XSL transformation
 	 *                                           xsl:evaluate feature is enabled or not.
 	 * @return                                   XSLTransformationResult object instance
+	 * @throws ClientThrottledException          If the XSL transformation is not admitted, because 
+	 *                                           of client quotas or this server's capacity
 	 * @throws IOException
 	 */
-	public XSLTransformationResult xslTransform(Optional<MultipartFile> xmlFile, MultipartFile xslFile, Optional<MultipartFile> auxFile, 
+	public XSLTransformationResult xslTransform(String clientId, Optional<MultipartFile> xmlFile, MultipartFile xslFile, Optional<MultipartFile> auxFile, 
 			                                                                     Optional<String> initTempl, Optional<String> initMode, 
 			                                                                     Optional<String> enableAssert, Optional<String> enableXslEvaluate) throws Exception {
 		
+		return xslTransform(clientId, xmlFile, xslFile, auxFile, initTempl, initMode, enableAssert, enableXslEvaluate, null);
+	}
+	
+	/**
+	 * Method definition, to invoke an XSL transformation by Apache Xalan 
+	 * XSLT 3.0 development code, capturing XSL transformation's secondary 
+	 * result documents.
+	 * 
+	 * The XSL transformation waits within the client scheduler, until it is 
+	 * admitted for its api client and its XSL stylesheet's cost class, and 
+	 * then runs within its cost class's worker pool.
+	 * 
+	 * @param clientId                           An api client's id, on whose behalf the XSL 
+	 *                                           transformation is scheduled
+	 * @param xmlFile							 Reference to XML document uploaded
+	 * @param xslFile                            Reference to an XSL stylesheet document uploaded 
+	 * @param auxFile                            Reference to an auxiliary document file uploaded 
+	 * @param initTempl                          An XSL transformation's initial template name
+	 * @param initMode                           An XSL transformation's initial mode name
+	 * @param enableAssert                       Boolean value true or false, whether XSL transformation
+	 *                                           xsl:assert feature is enabled or not. 
+	 * @param enableXslEvaluate                  Boolean value true or false, whether XSL transformation
+	 *                                           xsl:evaluate feature is enabled or not.
+	 * @param resultDocumentHandler              An object that captures XSL transformation's secondary
+	 *                                           result documents, or null
+	 * @return                                   XSLTransformationResult object instance
+	 * @throws ClientThrottledException          If the XSL transformation is not admitted, because 
+	 *                                           of client quotas or this server's capacity
+	 * @throws IOException
+	 */
+	public XSLTransformationResult xslTransform(String clientId, Optional<MultipartFile> xmlFile, MultipartFile xslFile, Optional<MultipartFile> auxFile, 
+			                                                                     Optional<String> initTempl, Optional<String> initMode, 
+			                                                                     Optional<String> enableAssert, Optional<String> enableXslEvaluate,
+			                                                                     XslResultDocumentHandler resultDocumentHandler) throws Exception {
+		
 		XSLTransformationResult xslTransformResult = null;
 		
 		XSLTransformUtil xslTransformUtil = new XSLTransformUtil();
+		xslTransformUtil.setResultDocumentHandler(resultDocumentHandler);
+		xslTransformUtil.setErrorLimits(diagnosticsProperties.getMaxDistinctErrors(), diagnosticsProperties.getMaxMessageLength(), 
+				                        diagnosticsProperties.getFailFastErrorCount());
+		
+		String stylesheetId = XslEvents.getStylesheetId(xslFile.getBytes());
+		xslTransformUtil.setStylesheetId(stylesheetId);
+		String costClass = stylesheetCostClassifier.classify(stylesheetId);
+		long inputBytes = xslFile.getSize() + (xmlFile.isPresent() ? (xmlFile.get()).getSize() : 0) 
+				                            + (auxFile.isPresent() ? (auxFile.get()).getSize() : 0);
 		
-		xslTransformResult = xslTransformUtil.xslTransform(xmlFile, xslFile, auxFile, initTempl, initMode, enableAssert, enableXslEvaluate);
+		// An XSL transformation's latency and heap allocation are measured 
+		// within the worker thread that runs it, and are -1 when it doesn't run.
+		long[] costHolder = new long[] { -1, -1 };
+		try {
+		   xslTransformResult = clientTransformationScheduler.execute(clientId, costClass, () -> costClassWorkerPools.execute(costClass, () -> {
+			   XSLTransformationResult workerResult = null;
+			   long startAllocatedBytes = stylesheetCostClassifier.getCurrentThreadAllocatedBytes();
+			   long startTime = System.nanoTime();
+			   try {
+				   workerResult = adaptiveConcurrencyLimiter.execute(stylesheetId, inputBytes, () -> xslTransformUtil.xslTransform(xmlFile, xslFile, auxFile, initTempl, 
+						                                                                                              initMode, enableAssert, enableXslEvaluate));
+			   }
+			   finally {
+				   costHolder[0] = System.nanoTime() - startTime;
+				   costHolder[1] = (startAllocatedBytes >= 0) ? (stylesheetCostClassifier.getCurrentThreadAllocatedBytes() - startAllocatedBytes) : -1;
+			   }
+			   
+			   stylesheetCostClassifier.recordTransformation(stylesheetId, inputBytes, costHolder[0], costHolder[1]);
+			   
+			   return workerResult;
+		   }));
+		}
+		finally {
+		   long latencyNanos = costHolder[0];
+		   long allocatedBytes = costHolder[1];
+		   
+		   Map<String, Optional<String>> optionMap = new LinkedHashMap<String, Optional<String>>();
+		   optionMap.put(XslTransformRequestRecord.INIT_TEMPLATE_KEY, initTempl);
+		   optionMap.put(XslTransformRequestRecord.INIT_MODE_KEY, initMode);
+		   optionMap.put(XslTransformRequestRecord.ENABLE_ASSERT_KEY, enableAssert);
+		   optionMap.put(XslTransformRequestRecord.ENABLE_XSL_EVALUATE_KEY, enableXslEvaluate);
+		   
+		   trafficCaptureService.captureIfThresholdExceeded(xmlFile, xslFile, auxFile, optionMap, xslTransformResult, latencyNanos, allocatedBytes);
+		}
 		
 		return xslTransformResult;
 	}
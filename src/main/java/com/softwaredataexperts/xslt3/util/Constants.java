@@ -40,8 +40,48 @@ public class Constants {
 	
 	public static final String JSON = "JSON";
 	
+	public static final String CSV = "CSV";
+	
+	public static final String TSV = "TSV";
+	
+	public static final String XPATH_FUNCTIONS_NS_URI = "http://www.w3.org/2005/xpath-functions";
+	
+	public static final String XSL_NS_URI = "http://www.w3.org/1999/XSL/Transform";
+	
 	public static final double XML_AND_AUX_FILE_SIZE_LIMIT = 1;       // Size in MB
 	
 	public static final double XSL_FILE_SIZE_LIMIT = 1;               // Size in MB
 	
+	public static final int RESULT_DOCUMENT_COUNT_LIMIT = 1000;
+	
+	public static final double RESULT_DOCUMENTS_SIZE_LIMIT = 50;      // Size in MB
+	
+	public static final String RESULT_DOCUMENT_SPOOL_DIR_PREFIX = "xsl3-result-documents";
+	
+	/**
+	 * This name cannot be produced by an xsl:result-document href value, 
+	 * since the character '@' is not permitted within such a value.
+	 */
+	public static final String PRINCIPAL_RESULT_ENTRY_NAME = "@principal-result";
+	
+	public static final long RESULT_DOCUMENT_MONITOR_INTERVAL_MS = 100;
+	
+	public static final String API_KEY_HEADER = "X-Api-Key";
+	
+	public static final String ANONYMOUS_CLIENT_ID = "anonymous";
+	
+	public static final String PHASE_PARSE_INPUT = "parseInput";
+	
+	public static final String PHASE_PARSE_STYLESHEET = "parseStylesheet";
+	
+	public static final String PHASE_COMPILE_STYLESHEET = "compileStylesheet";
+	
+	public static final String PHASE_NEW_TRANSFORMER = "newTransformer";
+	
+	public static final String PHASE_TRANSFORM = "transform";
+	
+	public static final int MAX_DISTINCT_ERRORS = 100;
+	
+	public static final int MAX_ERROR_MESSAGE_LENGTH = 2000;
+	
 }
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A class definition, implementing a SAX XMLReader that parses a CSV
+ * document (as specified by RFC 4180), and sends SAX events of an XML
+ * document having one "row" element for each CSV record, and one "field"
+ * element for each field of a CSV record. For example, the CSV document,
+ *
+ *   id,name
+ *   1,"Doe, John"
+ *
+ * is reported as an XML document,
+ *
+ *   <csv>
+ *     <row><field>id</field><field>name</field></row>
+ *     <row><field>1</field><field>Doe, John</field></row>
+ *   </csv>
+ *
+ * When a CSV document has a header record (i.e, the CSV document's media
+ * type parameter "header" is "present"), the header record is not reported
+ * as a row, and each field element has a "name" attribute, whose value is
+ * the corresponding field of the header record.
+ *
+ * Fields may be quoted with '"' characters, a quoted field may contain
+ * field delimiters, line breaks and '""' (a quote character) sequences.
+ * Records may be separated by CRLF or LF line breaks, and empty lines
+ * are ignored.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class CsvInputXMLReader extends StreamingInputXMLReader {
+
+	private static final String CSV = "csv";
+
+	private static final String ROW = "row";
+
+	private static final String FIELD = "field";
+
+	private static final String NAME = "name";
+
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	private final char m_delimiter;
+
+	private final boolean m_isHeaderPresent;
+
+	private final Charset m_charset;
+
+	private Reader m_reader = null;
+
+	private final char[] m_readBuffer = new char[READ_BUFFER_SIZE];
+
+	private int m_readPos = 0;
+
+	private int m_readLimit = 0;
+
+	/**
+	 * The current field's characters.
+	 */
+	private char[] m_fieldBuffer = new char[256];
+
+	private int m_fieldLength = 0;
+
+	/**
+	 * Field index, within the current record.
+	 */
+	private int m_fieldIdx = 0;
+
+	/**
+	 * Whether the current record has any characters (including, quote
+	 * and field delimiter characters).
+	 */
+	private boolean m_isRecordStarted = false;
+
+	private boolean m_isHeaderRecord = false;
+
+	private final List<String> m_headerNameList = new ArrayList<String>();
+
+	private final AttributesImpl m_attrs = new AttributesImpl();
+
+	private int m_lineNo = 1;
+
+	private int m_colNo = 1;
+
+	/**
+	 * Class constructor.
+	 *
+	 * @param delimiter                          A field delimiter character (for example, ',' or a tab)
+	 * @param isHeaderPresent                    Whether the first record of a CSV document is a header record
+	 * @param charset                            A CSV document's character encoding, used when an input
+	 *                                           source doesn't have a character stream
+	 */
+	public CsvInputXMLReader(char delimiter, boolean isHeaderPresent, Charset charset) {
+		this.m_delimiter = delimiter;
+		this.m_isHeaderPresent = isHeaderPresent;
+		this.m_charset = charset;
+	}
+
+	@Override
+	protected void parseInput(InputSource inpSource) throws IOException, SAXException {
+		m_reader = (inpSource.getCharacterStream() != null) ? inpSource.getCharacterStream()
+				                                            : new InputStreamReader(inpSource.getByteStream(), m_charset);
+		m_isHeaderRecord = m_isHeaderPresent;
+
+		try {
+			m_contentHandler.startDocument();
+			m_contentHandler.startElement("", CSV, CSV, EMPTY_ATTRIBUTES);
+
+			boolean isQuoted = false;
+			int ch = nextChar();
+			if (ch == '\uFEFF') {
+				// byte order mark
+				ch = nextChar();
+			}
+			while (ch != -1) {
+				if (isQuoted) {
+					if (ch == '"') {
+						int nextCh = nextChar();
+						if (nextCh == '"') {
+							appendFieldChar('"');
+						}
+						else {
+							isQuoted = false;
+							ch = nextCh;
+
+							continue;
+						}
+					}
+					else {
+						appendFieldChar((char)ch);
+					}
+				}
+				else if ((ch == '"') && (m_fieldLength == 0)) {
+					isQuoted = true;
+					m_isRecordStarted = true;
+				}
+				else if (ch == m_delimiter) {
+					m_isRecordStarted = true;
+					endField();
+				}
+				else if ((ch == '\r') || (ch == '\n')) {
+					if (m_isRecordStarted) {
+						endField();
+						endRecord();
+					}
+					if (ch == '\r') {
+						int nextCh = nextChar();
+						if (nextCh != '\n') {
+							ch = nextCh;
+
+							continue;
+						}
+					}
+				}
+				else {
+					m_isRecordStarted = true;
+					appendFieldChar((char)ch);
+				}
+
+				ch = nextChar();
+			}
+
+			if (isQuoted) {
+				throw getFatalError("A CSV document ends within a quoted field.", m_lineNo, m_colNo);
+			}
+			if (m_isRecordStarted) {
+				endField();
+				endRecord();
+			}
+
+			m_contentHandler.endElement("", CSV, CSV);
+			m_contentHandler.endDocument();
+		}
+		finally {
+			m_reader.close();
+		}
+	}
+
+	private int nextChar() throws IOException {
+		if (m_readPos == m_readLimit) {
+			m_readLimit = m_reader.read(m_readBuffer, 0, READ_BUFFER_SIZE);
+			m_readPos = 0;
+			if (m_readLimit <= 0) {
+				m_readLimit = 0;
+
+				return -1;
+			}
+		}
+
+		char ch = m_readBuffer[m_readPos++];
+		if (ch == '\n') {
+			m_lineNo++;
+			m_colNo = 1;
+		}
+		else {
+			m_colNo++;
+		}
+
+		return ch;
+	}
+
+	private void appendFieldChar(char ch) {
+		if (m_fieldLength == m_fieldBuffer.length) {
+			char[] fieldBuffer = new char[2 * m_fieldBuffer.length];
+			System.arraycopy(m_fieldBuffer, 0, fieldBuffer, 0, m_fieldLength);
+			m_fieldBuffer = fieldBuffer;
+		}
+		m_fieldBuffer[m_fieldLength++] = ch;
+	}
+
+	/**
+	 * Method definition, to send SAX events for the current field. The
+	 * current record's "row" element is started, when its first field
+	 * is sent.
+	 */
+	private void endField() throws SAXException {
+		if (m_isHeaderRecord) {
+			m_headerNameList.add(getXmlString(new String(m_fieldBuffer, 0, m_fieldLength)));
+		}
+		else {
+			if (m_fieldIdx == 0) {
+				m_contentHandler.startElement("", ROW, ROW, EMPTY_ATTRIBUTES);
+			}
+
+			AttributesImpl attrs = EMPTY_ATTRIBUTES;
+			if (m_fieldIdx < m_headerNameList.size()) {
+				m_attrs.clear();
+				m_attrs.addAttribute("", NAME, NAME, "CDATA", m_headerNameList.get(m_fieldIdx));
+				attrs = m_attrs;
+			}
+			sendTextElement("", FIELD, attrs, m_fieldBuffer, 0, m_fieldLength);
+		}
+
+		m_fieldIdx++;
+		m_fieldLength = 0;
+	}
+
+	private void endRecord() throws SAXException {
+		if (m_isHeaderRecord) {
+			m_isHeaderRecord = false;
+		}
+		else {
+			m_contentHandler.endElement("", ROW, ROW);
+		}
+
+		m_fieldIdx = 0;
+		m_isRecordStarted = false;
+	}
+
+	@Override
+	public int getLineNumber() {
+		return m_lineNo;
+	}
+
+	@Override
+	public int getColumnNumber() {
+		return m_colNo;
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.IOException;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A class definition, implementing a SAX XMLReader that parses a JSON
+ * document, and sends SAX events of an XML document as is produced by
+ * the XPath 3.1 function fn:json-to-xml (with default options) for that
+ * JSON document.
+ *
+ * For example, the JSON document {"a" : [1, true, null]} is reported as
+ * an XML document,
+ *
+ *   <map xmlns="http://www.w3.org/2005/xpath-functions">
+ *     <array key="a"><number>1</number><boolean>true</boolean><null/></array>
+ *   </map>
+ *
+ * A JSON document is read with Jackson's streaming parser, and therefore
+ * neither a JSON object model, nor an XML document's text is constructed.
+ * As with fn:json-to-xml's default options, JSON strings are reported
+ * unescaped, JSON numbers are reported with their original lexical form,
+ * and duplicate JSON object keys are retained.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class JsonInputXMLReader extends StreamingInputXMLReader {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String MAP = "map";
+
+	private static final String ARRAY = "array";
+
+	private static final String STRING = "string";
+
+	private static final String NUMBER = "number";
+
+	private static final String BOOLEAN = "boolean";
+
+	private static final String NULL = "null";
+
+	private static final String KEY = "key";
+
+	private static final char[] TRUE_CHARS = "true".toCharArray();
+
+	private static final char[] FALSE_CHARS = "false".toCharArray();
+
+	private JsonParser m_jsonParser = null;
+
+	private final AttributesImpl m_attrs = new AttributesImpl();
+
+	@Override
+	protected void parseInput(InputSource inpSource) throws IOException, SAXException {
+		if (inpSource.getCharacterStream() != null) {
+			m_jsonParser = JSON_FACTORY.createParser(inpSource.getCharacterStream());
+		}
+		else {
+			// Jackson detects a JSON document's encoding (UTF-8, UTF-16 or UTF-32)
+			m_jsonParser = JSON_FACTORY.createParser(inpSource.getByteStream());
+		}
+
+		try {
+			m_contentHandler.startDocument();
+			m_contentHandler.startPrefixMapping("", Constants.XPATH_FUNCTIONS_NS_URI);
+
+			JsonToken jsonToken = m_jsonParser.nextToken();
+			if (jsonToken == null) {
+				throw getFatalError("A JSON document is empty.", 1, 1);
+			}
+			sendValue(jsonToken);
+
+			if (m_jsonParser.nextToken() != null) {
+				JsonLocation jsonLocation = m_jsonParser.getTokenLocation();
+				throw getFatalError("A JSON document has unexpected content, after its top level value.",
+						                                                                  jsonLocation.getLineNr(), jsonLocation.getColumnNr());
+			}
+
+			m_contentHandler.endPrefixMapping("");
+			m_contentHandler.endDocument();
+		}
+		catch (JsonProcessingException ex) {
+			JsonLocation jsonLocation = ex.getLocation();
+			throw getFatalError("A JSON document is not well-formed. " + ex.getOriginalMessage(),
+					                                                                 (jsonLocation != null) ? jsonLocation.getLineNr() : -1,
+					                                                                 (jsonLocation != null) ? jsonLocation.getColumnNr() : -1);
+		}
+		finally {
+			m_jsonParser.close();
+		}
+	}
+
+	/**
+	 * Method definition, to send SAX events for a JSON value, starting at
+	 * the parser's current token. JSON objects and arrays are traversed
+	 * iteratively, with the parser's own context as the stack, so that
+	 * deeply nested JSON documents don't exhaust the thread's stack.
+	 */
+	private void sendValue(JsonToken firstToken) throws IOException, SAXException {
+		int depth = 0;
+		JsonToken jsonToken = firstToken;
+		do {
+			switch (jsonToken) {
+				case START_OBJECT :
+					m_contentHandler.startElement(Constants.XPATH_FUNCTIONS_NS_URI, MAP, MAP, getKeyAttributes());
+					depth++;
+					break;
+				case START_ARRAY :
+					m_contentHandler.startElement(Constants.XPATH_FUNCTIONS_NS_URI, ARRAY, ARRAY, getKeyAttributes());
+					depth++;
+					break;
+				case END_OBJECT :
+					m_contentHandler.endElement(Constants.XPATH_FUNCTIONS_NS_URI, MAP, MAP);
+					depth--;
+					break;
+				case END_ARRAY :
+					m_contentHandler.endElement(Constants.XPATH_FUNCTIONS_NS_URI, ARRAY, ARRAY);
+					depth--;
+					break;
+				case FIELD_NAME :
+					break;
+				case VALUE_STRING :
+				case VALUE_NUMBER_INT :
+				case VALUE_NUMBER_FLOAT :
+					String localName = (jsonToken == JsonToken.VALUE_STRING) ? STRING : NUMBER;
+					sendTextElement(Constants.XPATH_FUNCTIONS_NS_URI, localName, getKeyAttributes(), m_jsonParser.getTextCharacters(),
+							                                                            m_jsonParser.getTextOffset(), m_jsonParser.getTextLength());
+					break;
+				case VALUE_TRUE :
+					sendTextElement(Constants.XPATH_FUNCTIONS_NS_URI, BOOLEAN, getKeyAttributes(), TRUE_CHARS, 0, TRUE_CHARS.length);
+					break;
+				case VALUE_FALSE :
+					sendTextElement(Constants.XPATH_FUNCTIONS_NS_URI, BOOLEAN, getKeyAttributes(), FALSE_CHARS, 0, FALSE_CHARS.length);
+					break;
+				case VALUE_NULL :
+					m_contentHandler.startElement(Constants.XPATH_FUNCTIONS_NS_URI, NULL, NULL, getKeyAttributes());
+					m_contentHandler.endElement(Constants.XPATH_FUNCTIONS_NS_URI, NULL, NULL);
+					break;
+				default :
+					JsonLocation jsonLocation = m_jsonParser.getTokenLocation();
+					throw getFatalError("A JSON document has an unsupported token " + jsonToken + ".", jsonLocation.getLineNr(),
+							                                                                                jsonLocation.getColumnNr());
+			}
+
+			if (depth > 0) {
+				jsonToken = m_jsonParser.nextToken();
+				if (jsonToken == null) {
+					throw getFatalError("A JSON document ends unexpectedly.", getLineNumber(), getColumnNumber());
+				}
+			}
+		}
+		while (depth > 0);
+	}
+
+	/**
+	 * Method definition, to get the attributes of an XML element, that
+	 * represents a JSON value. When the JSON value is a JSON object's
+	 * entry, the XML element has a "key" attribute. For a token starting
+	 * a JSON object or array, Jackson reports the enclosing object's
+	 * current key as the current name.
+	 */
+	private AttributesImpl getKeyAttributes() throws IOException {
+		String keyStr = m_jsonParser.getCurrentName();
+		if (keyStr == null) {
+			return EMPTY_ATTRIBUTES;
+		}
+
+		m_attrs.clear();
+		m_attrs.addAttribute("", KEY, KEY, "CDATA", getXmlString(keyStr));
+
+		return m_attrs;
+	}
+
+	@Override
+	public int getLineNumber() {
+		return (m_jsonParser != null) ? (m_jsonParser.getCurrentLocation()).getLineNr() : -1;
+	}
+
+	@Override
+	public int getColumnNumber() {
+		return (m_jsonParser != null) ? (m_jsonParser.getCurrentLocation()).getColumnNr() : -1;
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+import org.springframework.core.io.InputStreamSource;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * A class definition, that is the base of SAX XMLReader implementations
+ * parsing non XML input documents (for example, JSON and CSV documents).
+ * An input document is read as a stream, and SAX events of an equivalent
+ * XML document are sent to a ContentHandler (for an XSL transformation,
+ * this is Xalan-J's input document tree builder), without constructing
+ * an XML document's text or a DOM object.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public abstract class StreamingInputXMLReader implements XMLReader, Locator {
+
+	private static final String NAMESPACES_FEATURE = "http://xml.org/sax/features/namespaces";
+
+	private static final String NAMESPACE_PREFIXES_FEATURE = "http://xml.org/sax/features/namespace-prefixes";
+
+	protected static final AttributesImpl EMPTY_ATTRIBUTES = new AttributesImpl();
+
+	protected ContentHandler m_contentHandler = null;
+
+	protected ErrorHandler m_errorHandler = null;
+
+	protected DTDHandler m_dtdHandler = null;
+
+	protected EntityResolver m_entityResolver = null;
+
+	protected String m_systemId = null;
+
+	/**
+	 * An input document, that is opened only when parsing starts, so that
+	 * an input stream is not left open when an XSL transformation doesn't
+	 * start (for e.g, because an XSL transformation option is invalid).
+	 */
+	private InputStreamSource m_inputStreamSource = null;
+
+	private Charset m_inputCharset = null;
+
+	/**
+	 * A buffer, used to replace characters that are not allowed within
+	 * an XML document.
+	 */
+	private char[] m_charBuffer = new char[256];
+
+	/**
+	 * Method definition, to parse an input document's character stream
+	 * or byte stream, and to send SAX events to the content handler. An
+	 * implementation closes the input stream, after parsing it.
+	 *
+	 * @param inpSource                          An input document
+	 * @throws IOException
+	 * @throws SAXException
+	 */
+	protected abstract void parseInput(InputSource inpSource) throws IOException, SAXException;
+
+	@Override
+	public void parse(InputSource inpSource) throws IOException, SAXException {
+		m_systemId = inpSource.getSystemId();
+		if (m_contentHandler == null) {
+			throw new SAXException("A content handler, is not set for an XML reader.");
+		}
+
+		m_contentHandler.setDocumentLocator(this);
+
+		if ((m_inputStreamSource == null) || (inpSource.getByteStream() != null) || (inpSource.getCharacterStream() != null)) {
+			parseInput(inpSource);
+
+			return;
+		}
+
+		InputStream inpStream = m_inputStreamSource.getInputStream();
+		try {
+			InputSource streamInpSource = new InputSource(m_systemId);
+			if (m_inputCharset != null) {
+				streamInpSource.setCharacterStream(new InputStreamReader(inpStream, m_inputCharset));
+			}
+			else {
+				streamInpSource.setByteStream(inpStream);
+			}
+
+			parseInput(streamInpSource);
+		}
+		finally {
+			inpStream.close();
+		}
+	}
+
+	/**
+	 * Method definition, to set an input document that is opened and parsed,
+	 * when this XMLReader's parse method is called with an InputSource object
+	 * that doesn't have a character stream or a byte stream. The input stream
+	 * is closed when parsing ends, or fails.
+	 *
+	 * @param inputStreamSource                  An input document (for e.g, an uploaded file)
+	 * @param charset                            An input document's encoding, or null if
+	 *                                           an input document is read as a byte stream
+	 */
+	public void setInputStreamSource(InputStreamSource inputStreamSource, Charset charset) {
+		this.m_inputStreamSource = inputStreamSource;
+		this.m_inputCharset = charset;
+	}
+
+	@Override
+	public void parse(String systemId) throws IOException, SAXException {
+		parse(new InputSource(systemId));
+	}
+
+	/**
+	 * Method definition, to send a text value to the content handler. Any
+	 * character that is not allowed within an XML document, is replaced by
+	 * the Unicode replacement character U+FFFD (as is done by the XPath 3.1
+	 * function fn:json-to-xml).
+	 *
+	 * @param charArr                            A text value's characters
+	 * @param start                              Start position of a text value within charArr
+	 * @param length                             Length of a text value
+	 * @throws SAXException
+	 */
+	protected void sendCharacters(char[] charArr, int start, int length) throws SAXException {
+		if (length == 0) {
+			return;
+		}
+
+		int invalidIdx = getInvalidCharIndex(charArr, start, length);
+		if (invalidIdx == -1) {
+			m_contentHandler.characters(charArr, start, length);
+
+			return;
+		}
+
+		if (m_charBuffer.length < length) {
+			m_charBuffer = new char[Math.max(length, 2 * m_charBuffer.length)];
+		}
+		System.arraycopy(charArr, start, m_charBuffer, 0, length);
+		for (int idx = invalidIdx - start; idx < length; idx++) {
+			char ch = m_charBuffer[idx];
+			if (Character.isHighSurrogate(ch) && (idx + 1 < length) && Character.isLowSurrogate(m_charBuffer[idx + 1])) {
+				idx++;
+			}
+			else if (!isXmlChar(ch)) {
+				m_charBuffer[idx] = '\uFFFD';
+			}
+		}
+
+		m_contentHandler.characters(m_charBuffer, 0, length);
+	}
+
+	/**
+	 * Method definition, to send an XML element having only a text value
+	 * to the content handler.
+	 */
+	protected void sendTextElement(String nsUri, String localName, AttributesImpl attrs, char[] charArr,
+			                                                                                  int start, int length) throws SAXException {
+		m_contentHandler.startElement(nsUri, localName, localName, attrs);
+		sendCharacters(charArr, start, length);
+		m_contentHandler.endElement(nsUri, localName, localName);
+	}
+
+	/**
+	 * Method definition, to get a string value, that may be used as an
+	 * XML attribute value.
+	 */
+	protected String getXmlString(String strValue) {
+		StringBuilder strBuilder = null;
+		for (int idx = 0; idx < strValue.length(); idx++) {
+			char ch = strValue.charAt(idx);
+			if (Character.isHighSurrogate(ch) && (idx + 1 < strValue.length()) && Character.isLowSurrogate(strValue.charAt(idx + 1))) {
+				if (strBuilder != null) {
+					strBuilder.append(ch).append(strValue.charAt(idx + 1));
+				}
+				idx++;
+				continue;
+			}
+
+			boolean isValidChar = isXmlChar(ch);
+			if (!isValidChar && (strBuilder == null)) {
+				strBuilder = new StringBuilder(strValue.length());
+				strBuilder.append(strValue, 0, idx);
+			}
+			if (strBuilder != null) {
+				strBuilder.append(isValidChar ? ch : '\uFFFD');
+			}
+		}
+
+		return (strBuilder == null) ? strValue : strBuilder.toString();
+	}
+
+	/**
+	 * Method definition, to report a fatal input document parse error to
+	 * the error handler, and to get the exception to be thrown.
+	 */
+	protected SAXParseException getFatalError(String errMesg, int lineNo, int colNo) throws SAXException {
+		SAXParseException saxParseEx = new SAXParseException(errMesg, null, m_systemId, lineNo, colNo);
+		if (m_errorHandler != null) {
+			m_errorHandler.fatalError(saxParseEx);
+		}
+
+		return saxParseEx;
+	}
+
+	private static int getInvalidCharIndex(char[] charArr, int start, int length) {
+		int end = start + length;
+		for (int idx = start; idx < end; idx++) {
+			char ch = charArr[idx];
+			if ((ch >= 0x20) && (ch < 0xD800)) {
+				continue;
+			}
+
+			if (Character.isHighSurrogate(ch) && (idx + 1 < end) && Character.isLowSurrogate(charArr[idx + 1])) {
+				idx++;
+			}
+			else if (!isXmlChar(ch)) {
+				return idx;
+			}
+		}
+
+		return -1;
+	}
+
+	private static boolean isXmlChar(char ch) {
+		return (ch == 0x9) || (ch == 0xA) || (ch == 0xD) || ((ch >= 0x20) && (ch < 0xD800)) || ((ch >= 0xE000) && (ch <= 0xFFFD));
+	}
+
+	@Override
+	public boolean getFeature(String name) throws SAXNotRecognizedException {
+		if (NAMESPACES_FEATURE.equals(name)) {
+			return true;
+		}
+		else if (NAMESPACE_PREFIXES_FEATURE.equals(name)) {
+			return false;
+		}
+
+		throw new SAXNotRecognizedException(name);
+	}
+
+	@Override
+	public void setFeature(String name, boolean value) throws SAXNotRecognizedException {
+		if (!(NAMESPACES_FEATURE.equals(name) || NAMESPACE_PREFIXES_FEATURE.equals(name))) {
+			throw new SAXNotRecognizedException(name);
+		}
+	}
+
+	@Override
+	public Object getProperty(String name) throws SAXNotRecognizedException {
+		throw new SAXNotRecognizedException(name);
+	}
+
+	@Override
+	public void setProperty(String name, Object value) throws SAXNotRecognizedException {
+		throw new SAXNotRecognizedException(name);
+	}
+
+	@Override
+	public void setEntityResolver(EntityResolver entityResolver) {
+		this.m_entityResolver = entityResolver;
+	}
+
+	@Override
+	public EntityResolver getEntityResolver() {
+		return m_entityResolver;
+	}
+
+	@Override
+	public void setDTDHandler(DTDHandler dtdHandler) {
+		this.m_dtdHandler = dtdHandler;
+	}
+
+	@Override
+	public DTDHandler getDTDHandler() {
+		return m_dtdHandler;
+	}
+
+	@Override
+	public void setContentHandler(ContentHandler contentHandler) {
+		this.m_contentHandler = contentHandler;
+	}
+
+	@Override
+	public ContentHandler getContentHandler() {
+		return m_contentHandler;
+	}
+
+	@Override
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.m_errorHandler = errorHandler;
+	}
+
+	@Override
+	public ErrorHandler getErrorHandler() {
+		return m_errorHandler;
+	}
+
+	@Override
+	public String getPublicId() {
+		return null;
+	}
+
+	@Override
+	public String getSystemId() {
+		return m_systemId;
+	}
+
+}
@@ -20,8 +20,6 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -42,6 +40,11 @@ import org.springframework.web.multipart.MultipartFile;
 import org.w3c.dom.Document;
 import org.xml.sax.InputSource;
 
+import com.softwaredataexperts.xslt3.jfr.XslCompileEvent;
+import com.softwaredataexperts.xslt3.jfr.XslEvents;
+import com.softwaredataexperts.xslt3.jfr.XslParseEvent;
+import com.softwaredataexperts.xslt3.jfr.XslTransformEvent;
+import com.softwaredataexperts.xslt3.jfr.XslTransformerCreateEvent;
 import com.softwaredataexperts.xslt3.model.XSLTransformationResult;
 
 /**
@@ -58,6 +61,31 @@ public class XSLTransformUtil {
 	
 	protected String m_xslFileName = null;
 	
+	/**
+	 * When this value is non null, XSL transformation's secondary result 
+	 * documents are captured by this object, instead of being written 
+	 * to the server's working directory.
+	 */
+	protected XslResultDocumentHandler m_resultDocumentHandler = null;
+	
+	protected int m_maxDistinctErrors = Constants.MAX_DISTINCT_ERRORS;
+	
+	protected int m_maxErrorMessageLength = Constants.MAX_ERROR_MESSAGE_LENGTH;
+	
+	/**
+	 * Number of errors, after which an XSL transformation is stopped. 
+	 * The value 0 means, that an XSL transformation runs to completion 
+	 * irrespective of the number of errors.
+	 */
+	protected int m_failFastErrorCount = 0;
+	
+	/**
+	 * An XSL stylesheet id, when it has been computed before an XSL 
+	 * transformation is invoked. When this value is null, it is computed 
+	 * from an uploaded XSL stylesheet.
+	 */
+	protected String m_stylesheetId = null;
+	
 	/**
 	 * Method definition, to invoke an XSL transformation by Apache Xalan 
 	 * XSLT 3.0 development code.
@@ -80,7 +108,8 @@ public class XSLTransformUtil {
 		
 		XSLTransformationResult xslTransformResult = new XSLTransformationResult();
 		
-		XslTransformErrorHandler xslTransformErrorHandler = new XslTransformErrorHandler();
+		XslTransformErrorHandler xslTransformErrorHandler = new XslTransformErrorHandler(m_maxDistinctErrors, m_maxErrorMessageLength, 
+				                                                                         m_failFastErrorCount);
 		
 		try {
 			System.setProperty(Constants.XML_DOCUMENT_BUILDER_FACTORY_KEY, Constants.XML_DOCUMENT_BUILDER_FACTORY_VALUE);
@@ -90,15 +119,39 @@ public class XSLTransformUtil {
 			docBuilderFactory.setNamespaceAware(true);		
 
 			DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
+			
+			String stylesheetId = (m_stylesheetId != null) ? m_stylesheetId : XslEvents.getStylesheetId(xslFile.getBytes());
+			xslTransformResult.setStylesheetId(stylesheetId);
+			long xmlFileSize = xmlFile.isPresent() ? (xmlFile.get()).getSize() : 0;
 
 			m_xmlFileName = xmlFile.isPresent() ? (xmlFile.get()).getOriginalFilename() : null;
-			String xmlDocStr = xmlFile.isPresent() ? new String((xmlFile.get()).getBytes()) : null;
-			DOMSource xmlInputDomSrc = null;
+			String xmlInputFormat = xmlFile.isPresent() ? XslInputSourceFactory.getInputFormat(xmlFile.get()) : null;
+			String xmlDocStr = (xmlFile.isPresent() && (Constants.XML).equals(xmlInputFormat)) ? new String((xmlFile.get()).getBytes()) : null;
+			Source xmlInputSrc = null;
 			if (xmlDocStr != null) {
 				StringReader strReader = new StringReader(xmlDocStr);
 				InputSource inpSource = new InputSource(strReader);			
+				XslParseEvent xmlParseEvent = new XslParseEvent();
+				xmlParseEvent.begin();
+				long phaseStartTime = System.nanoTime();
 				Document document = docBuilder.parse(inpSource);
-				xmlInputDomSrc = new DOMSource(document, m_xmlFileName);
+				xslTransformResult.addPhaseTiming(Constants.PHASE_PARSE_INPUT, System.nanoTime() - phaseStartTime);
+				xmlParseEvent.end();
+				if (xmlParseEvent.shouldCommit()) {
+					xmlParseEvent.stylesheetId = stylesheetId;
+					xmlParseEvent.documentKind = XslEvents.DOCUMENT_KIND_INPUT;
+					xmlParseEvent.documentSize = xmlFileSize;
+					xmlParseEvent.commit();
+				}
+				xmlInputSrc = new DOMSource(document, m_xmlFileName);
+			}
+			else if (xmlInputFormat != null) {
+				/**
+				 * A JSON, CSV or TSV input document is parsed as a stream when the
+				 * XSL transformation starts, therefore its parse time is included
+				 * within the XSL transformation's transform phase.
+				 */
+				xmlInputSrc = XslInputSourceFactory.newSAXSource(xmlFile.get(), xmlInputFormat, m_xmlFileName);
 			}
 
 			m_xslFileName = xslFile.getOriginalFilename(); 
@@ -106,7 +159,21 @@ public class XSLTransformUtil {
 
 			StringReader xslStrReader = new StringReader(xslDocString);
 			InputSource xslInpSrc = new InputSource(xslStrReader);
+			XslParseEvent xslParseEvent = new XslParseEvent();
+			xslParseEvent.begin();
+			long xslParseStartTime = System.nanoTime();
 			Document xslDocument = docBuilder.parse(xslInpSrc);
+			xslTransformResult.addPhaseTiming(Constants.PHASE_PARSE_STYLESHEET, System.nanoTime() - xslParseStartTime);
+			xslParseEvent.end();
+			if (xslParseEvent.shouldCommit()) {
+				xslParseEvent.stylesheetId = stylesheetId;
+				xslParseEvent.documentKind = XslEvents.DOCUMENT_KIND_STYLESHEET;
+				xslParseEvent.documentSize = xslFile.getSize();
+				xslParseEvent.commit();
+			}
+			if (m_resultDocumentHandler != null) {
+				m_resultDocumentHandler.guardResultDocumentHrefs(xslDocument, xslTransformErrorHandler);
+			}
 			DOMSource xslDomInputSrc = new DOMSource(xslDocument, m_xslFileName);
 
 			m_auxFileName = auxFile.isPresent() ? (auxFile.get()).getOriginalFilename() : null;
@@ -135,13 +202,9 @@ public class XSLTransformUtil {
 				xslTransformFactory.setAttribute(XalanProperties.INIT_MODE, initModeNameStr);
 			}
 			
-			List<String> trfErrorList = new ArrayList<String>();
-			
-			validateUploadedFileSizes(xmlFile, xslFile, auxFile, trfErrorList);
+			validateUploadedFileSizes(xmlFile, xslFile, auxFile, xslTransformErrorHandler);
 			
-			if (trfErrorList.size() > 0) {
-    		    xslTransformResult.setErrorList(trfErrorList);
-    		   
+			if (xslTransformErrorHandler.hasErrors()) {
     		    return xslTransformResult;
     		}
 			
@@ -151,7 +214,7 @@ public class XSLTransformUtil {
 				   xslTransformFactory.setAttribute(XalanProperties.ASSERT_ENABLED, Boolean.TRUE);
 				}
 				else if (!("false".equals(enableAssertStr) || "no".equals(enableAssertStr) || "0".equals(enableAssertStr))) {					
-					trfErrorList.add("Error : XSL transformation's enable_assert configuration value, may have the values "
+					xslTransformErrorHandler.addError("XSL transformation's enable_assert configuration value, may have the values "
 										                                                                + "true, yes, 1, false, no, 0. The supplied "
 										                                                                + "value " + enableAssertStr + ", is incorrect.");				   						
 				}
@@ -160,22 +223,54 @@ public class XSLTransformUtil {
 			xslTransformFactory.setErrorListener(xslTransformErrorHandler);
 
 			StringWriter resultStrWriter = new StringWriter();
+			XslSerializeWriter serializeWriter = new XslSerializeWriter(resultStrWriter);
 			
-			Templates templates = xslTransformFactory.newTemplates(xslDomInputSrc);
+			StreamResult principalResult = new StreamResult(serializeWriter);
+			if (m_resultDocumentHandler != null) {
+				m_resultDocumentHandler.setBaseOutputUri(principalResult);
+				m_resultDocumentHandler.setStylesheetId(stylesheetId);
+			}
+			
+			XslCompileEvent compileEvent = new XslCompileEvent();
+			compileEvent.begin();
+			long compileStartTime = System.nanoTime();
+			Templates templates = null;
+			try {
+				templates = xslTransformFactory.newTemplates(xslDomInputSrc);
+			}
+			finally {
+				xslTransformResult.addPhaseTiming(Constants.PHASE_COMPILE_STYLESHEET, System.nanoTime() - compileStartTime);
+				compileEvent.end();
+				if (compileEvent.shouldCommit()) {
+					compileEvent.stylesheetId = stylesheetId;
+					compileEvent.stylesheetSize = xslFile.getSize();
+					compileEvent.errorCount = (int)xslTransformErrorHandler.getErrorCount();
+					compileEvent.commit();
+				}
+			}
 			String xslResultMethStr = null;
 			if (templates != null) { 
+				XslTransformerCreateEvent transformerCreateEvent = new XslTransformerCreateEvent();
+				transformerCreateEvent.begin();
+				long newTransformerStartTime = System.nanoTime();
 				Transformer transformer = templates.newTransformer();
+				xslTransformResult.addPhaseTiming(Constants.PHASE_NEW_TRANSFORMER, System.nanoTime() - newTransformerStartTime);
+				transformerCreateEvent.end();
+				if (transformerCreateEvent.shouldCommit()) {
+					transformerCreateEvent.stylesheetId = stylesheetId;
+					transformerCreateEvent.commit();
+				}
 				transformer.setErrorListener(xslTransformErrorHandler);
 
 				xslResultMethStr = transformer.getOutputProperty(OutputKeys.METHOD);
 				
 				Source xmlInpSrc = null;
-	    		if ((initTemplNameStr != null) && (xmlInputDomSrc == null)) {    			
+	    		if ((initTemplNameStr != null) && (xmlInputSrc == null)) {    			
 	    			StringReader strReader = new StringReader("<?xml version=\"1.0\"?><unlikely_xml_element/>");
 	         	    xmlInpSrc = new StreamSource(strReader);
 	    		}
 	    		else {
-	    			xmlInpSrc = xmlInputDomSrc; 
+	    			xmlInpSrc = xmlInputSrc; 
 	    		}
 	    		
 	    		TransformerImpl transformerImpl = (TransformerImpl)transformer;
@@ -185,28 +280,44 @@ public class XSLTransformUtil {
 						transformerImpl.setProperty(TransformerImpl.XSL_EVALUATE_PROPERTY, Boolean.TRUE);
 					}
 					else if (!("false".equals(enableXslEvaluateStr) || "no".equals(enableXslEvaluateStr) || "0".equals(enableXslEvaluateStr))) {
-						trfErrorList.add("Error : XSL transformation's enable_xsl_evaluate configuration value, may have the values "
+						xslTransformErrorHandler.addError("XSL transformation's enable_xsl_evaluate configuration value, may have the values "
 											                                                                      + "true, yes, 1, false, no, 0. The supplied "
 											                                                                      + "value " + enableXslEvaluateStr + ", is incorrect.");				   							
 					}
 				}
 	    		
-	    		if (trfErrorList.size() > 0) {
-	    		    xslTransformResult.setErrorList(trfErrorList);
-	    		   
+	    		if (xslTransformErrorHandler.hasErrors()) {
 	    		    return xslTransformResult;
 	    		}
 
-				transformer.transform(xmlInpSrc, new StreamResult(resultStrWriter));
+				XslTransformEvent transformEvent = new XslTransformEvent();
+				transformEvent.begin();
+				long transformStartTime = System.nanoTime();
+				if (m_resultDocumentHandler != null) {
+					m_resultDocumentHandler.startMonitoring();
+				}
+				try {
+					transformer.transform(xmlInpSrc, principalResult);
+				}
+				finally {
+					if (m_resultDocumentHandler != null) {
+						m_resultDocumentHandler.stopMonitoring();
+						m_resultDocumentHandler.validateResultDocumentLimits(xslTransformErrorHandler);
+					}
+					xslTransformResult.addPhaseTiming(Constants.PHASE_TRANSFORM, System.nanoTime() - transformStartTime);
+					serializeWriter.commitSerializeEvent(stylesheetId, xslResultMethStr);
+					transformEvent.end();
+					if (transformEvent.shouldCommit()) {
+						transformEvent.stylesheetId = stylesheetId;
+						transformEvent.inputSize = xmlFileSize;
+						transformEvent.outputSize = (resultStrWriter.getBuffer()).length();
+						transformEvent.errorCount = (int)xslTransformErrorHandler.getErrorCount();
+						transformEvent.commit();
+					}
+				}
 		    }
 
-			trfErrorList = xslTransformErrorHandler.getTrfErrorList();
-			List<String> trfFatalErrorList = xslTransformErrorHandler.getTrfFatalErrorList();
-			if (trfErrorList.size() > 0 || trfFatalErrorList.size() > 0) {
-				trfErrorList.addAll(trfFatalErrorList);
-				xslTransformResult.setErrorList(trfErrorList);
-			}
-			else {
+			if (!xslTransformErrorHandler.hasErrors()) {
 				if ((org.apache.xml.serializer.Method.XML).equals(xslResultMethStr)) {
 					xslTransformResult.setResponseFormatStr(Constants.XML);
 				}
@@ -224,29 +335,30 @@ public class XSLTransformUtil {
 			}
 		}		
         catch (TransformerException ex) {
-        	List<String> errList = xslTransformErrorHandler.getTrfErrorList();
-        	List<String> fatalErrList = xslTransformErrorHandler.getTrfFatalErrorList();
-        	if ((errList.size() == 0) && (fatalErrList.size() == 0)) {
+        	if (!xslTransformErrorHandler.hasErrors()) {
         	   throw new Exception(ex.getMessage());
         	}
 		}
 		catch (org.xml.sax.SAXException ex) {
-			List<String> errList = xslTransformErrorHandler.getTrfErrorList();
-        	List<String> fatalErrList = xslTransformErrorHandler.getTrfFatalErrorList();
-        	if ((errList.size() == 0) && (fatalErrList.size() == 0)) {
+        	if (!xslTransformErrorHandler.hasErrors()) {
         	   throw new Exception(ex.getMessage());
         	}
 		}
 		catch (Exception ex) {
 			if (!((ex instanceof NullPointerException) || (ex instanceof ClassCastException))) {
-				List<String> errList = xslTransformErrorHandler.getTrfErrorList();
-	        	List<String> fatalErrList = xslTransformErrorHandler.getTrfFatalErrorList();
-	        	if ((errList.size() == 0) && (fatalErrList.size() == 0)) {
+	        	if (!xslTransformErrorHandler.hasErrors()) {
 	        	   throw new Exception(ex.getMessage());
 	        	}
 			}
 		}
  		finally {
+ 			if (xslTransformErrorHandler.hasErrors()) {
+ 				xslTransformResult.setErrorList(xslTransformErrorHandler.getDiagnosticList());
+ 				xslTransformResult.setErrorCount(xslTransformErrorHandler.getErrorCount());
+ 				xslTransformResult.setDroppedErrorCount(xslTransformErrorHandler.getDroppedErrorCount());
+ 				xslTransformResult.setStoppedOnError(xslTransformErrorHandler.isStoppedOnError());
+ 			}
+ 			
  			if (m_auxFileName != null) {
  			   File file = new File(m_auxFileName);
 			   file.delete();
@@ -256,30 +368,67 @@ public class XSLTransformUtil {
 		return xslTransformResult;
 	}
 
+	/**
+	 * Method definition, to set an object that captures XSL transformation's 
+	 * secondary result documents.
+	 * 
+	 * @param resultDocumentHandler              An XslResultDocumentHandler object instance
+	 */
+	public void setResultDocumentHandler(XslResultDocumentHandler resultDocumentHandler) {
+		m_resultDocumentHandler = resultDocumentHandler;
+	}
+
+	/**
+	 * Method definition, to set limits of errors reported by an XSL 
+	 * transformation.
+	 * 
+	 * @param maxDistinctErrors                  Max number of distinct errors reported. Further distinct
+	 *                                           errors are only counted.
+	 * @param maxErrorMessageLength              Max length of an error message. A longer error message
+	 *                                           is truncated.
+	 * @param failFastErrorCount                 Number of errors, after which an XSL transformation is
+	 *                                           stopped, or 0
+	 */
+	public void setErrorLimits(int maxDistinctErrors, int maxErrorMessageLength, int failFastErrorCount) {
+		m_maxDistinctErrors = maxDistinctErrors;
+		m_maxErrorMessageLength = maxErrorMessageLength;
+		m_failFastErrorCount = failFastErrorCount;
+	}
+
+	/**
+	 * Method definition, to set an uploaded XSL stylesheet's id, when it 
+	 * has been computed before an XSL transformation is invoked.
+	 * 
+	 * @param stylesheetId                       An XSL stylesheet id
+	 */
+	public void setStylesheetId(String stylesheetId) {
+		m_stylesheetId = stylesheetId;
+	}
+
 	/**
 	 * Method definition, to validate uploaded file sizes.
 	 * 
 	 * @param xmlFile                       Represents, an optional XML document file
 	 * @param xslFile                       Represents, a required XSL document file
 	 * @param auxFile                       Represents, an optional auxiliary document file
-	 * @param trfErrorList                  A List<String> object instance, to contain file sizes
+	 * @param xslTransformErrorHandler      An XslTransformErrorHandler object instance, to contain file sizes
 	 *                                      error information.
 	 */
 	private void validateUploadedFileSizes(Optional<MultipartFile> xmlFile, MultipartFile xslFile,
-			                                                                         Optional<MultipartFile> auxFile, List<String> trfErrorList) {
+			                                                                         Optional<MultipartFile> auxFile, XslTransformErrorHandler xslTransformErrorHandler) {
 		if (m_xmlFileName != null) {
 			MultipartFile xmlMultipartDocument = xmlFile.get();
 			long xmlDocumentByteSize = xmlMultipartDocument.getSize();
 			double xmlDocumentMbSize = (xmlDocumentByteSize / (1024 * 1024));
 			if (xmlDocumentMbSize > 1.5) {
-			    trfErrorList.add("Error : An XML document's max size, for an uploaded XML document can be " + Constants.XML_AND_AUX_FILE_SIZE_LIMIT + " MB.");
+			    xslTransformErrorHandler.addError("An XML document's max size, for an uploaded XML document can be " + Constants.XML_AND_AUX_FILE_SIZE_LIMIT + " MB.");
 			}
 		}
 		
 		long xslDocumentByteSize = xslFile.getSize();
 		double xslDocumentMbSize = (xslDocumentByteSize / (1024 * 1024));
 		if (xslDocumentMbSize > 0.5) {
-		    trfErrorList.add("Error : An XSL stylesheet document's max size, for an uploaded XSL stylesheet can be " + Constants.XSL_FILE_SIZE_LIMIT + " MB.");
+		    xslTransformErrorHandler.addError("An XSL stylesheet document's max size, for an uploaded XSL stylesheet can be " + Constants.XSL_FILE_SIZE_LIMIT + " MB.");
 		}
 		
 		if (m_auxFileName != null) {
@@ -287,7 +436,7 @@ public class XSLTransformUtil {
 			long auxFileDocumentByteSize = auxFileMultipartDocument.getSize();
 			double auxFileDocumentMbSize = (auxFileDocumentByteSize / (1024 * 1024));
 			if (auxFileDocumentMbSize > 1.5) {
-			    trfErrorList.add("Error : An XML auxiallry document's max size, for an uploaded XML document can be " + Constants.XML_AND_AUX_FILE_SIZE_LIMIT + " MB.");
+			    xslTransformErrorHandler.addError("An XML auxiallry document's max size, for an uploaded XML document can be " + Constants.XML_AND_AUX_FILE_SIZE_LIMIT + " MB.");
 			}
 		}
 	}
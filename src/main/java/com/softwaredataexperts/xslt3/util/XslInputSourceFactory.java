@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.transform.sax.SAXSource;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+
+/**
+ * A class definition, that selects an XSL transformation input document's
+ * format (i.e, XML, JSON, CSV or TSV) from an uploaded file's media type,
+ * and that constructs a SAXSource object for JSON, CSV and TSV input
+ * documents. Such a SAXSource object opens and parses an input document as
+ * a stream, only when an XSL transformation starts, and sends SAX events
+ * directly to Xalan-J's input document tree builder.
+ *
+ * An input document's media type is used as follows,
+ *
+ *   application/json, text/json and application/*+json    : JSON
+ *   text/csv and application/csv                           : CSV
+ *   text/tab-separated-values                              : TSV
+ *
+ * The media type parameter "charset" specifies a JSON, CSV or TSV
+ * document's encoding, and for CSV and TSV documents, the media type
+ * parameter "header=present" specifies that the first record is a header
+ * record. When an uploaded file doesn't have a specific media type (i.e,
+ * it doesn't have a media type, or has the media type
+ * application/octet-stream or text/plain), the file name extensions .json,
+ * .csv and .tsv are used instead. Any other input document is parsed as
+ * an XML document.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslInputSourceFactory {
+
+	private static final String HEADER_PARAMETER = "header";
+
+	/**
+	 * Method definition, to get an uploaded input document's format.
+	 *
+	 * @param inputFile                          An uploaded input document
+	 * @return                                   One of the values Constants.XML, Constants.JSON,
+	 *                                           Constants.CSV and Constants.TSV
+	 */
+	public static String getInputFormat(MultipartFile inputFile) {
+		MediaType mediaType = getMediaType(inputFile);
+		if (mediaType != null) {
+			String typeStr = (mediaType.getType()).toLowerCase();
+			String subtypeStr = (mediaType.getSubtype()).toLowerCase();
+			if (("application".equals(typeStr) && ("json".equals(subtypeStr) || subtypeStr.endsWith("+json")))
+					                                                    || ("text".equals(typeStr) && "json".equals(subtypeStr))) {
+				return Constants.JSON;
+			}
+			else if (("text".equals(typeStr) || "application".equals(typeStr)) && "csv".equals(subtypeStr)) {
+				return Constants.CSV;
+			}
+			else if ("text".equals(typeStr) && "tab-separated-values".equals(subtypeStr)) {
+				return Constants.TSV;
+			}
+			else if (!(("application".equals(typeStr) && "octet-stream".equals(subtypeStr))
+					                                                    || ("text".equals(typeStr) && "plain".equals(subtypeStr)))) {
+				return Constants.XML;
+			}
+		}
+
+		String fileName = inputFile.getOriginalFilename();
+		fileName = (fileName != null) ? fileName.toLowerCase() : "";
+		if (fileName.endsWith(".json")) {
+			return Constants.JSON;
+		}
+		else if (fileName.endsWith(".csv")) {
+			return Constants.CSV;
+		}
+		else if (fileName.endsWith(".tsv")) {
+			return Constants.TSV;
+		}
+
+		return Constants.XML;
+	}
+
+	/**
+	 * Method definition, to construct a SAXSource object for an uploaded
+	 * JSON, CSV or TSV input document.
+	 *
+	 * @param inputFile                          An uploaded input document
+	 * @param inputFormat                        An input document's format, as returned by
+	 *                                           the method getInputFormat
+	 * @param systemId                           An input document's system id
+	 * @return                                   SAXSource object instance
+	 */
+	public static SAXSource newSAXSource(MultipartFile inputFile, String inputFormat, String systemId) {
+		MediaType mediaType = getMediaType(inputFile);
+		Charset charset = (mediaType != null) ? mediaType.getCharset() : null;
+
+		InputSource inpSource = new InputSource();
+		inpSource.setSystemId(systemId);
+
+		StreamingInputXMLReader xmlReader = null;
+		if ((Constants.JSON).equals(inputFormat)) {
+			xmlReader = new JsonInputXMLReader();
+			xmlReader.setInputStreamSource(inputFile, charset);
+		}
+		else if ((Constants.CSV).equals(inputFormat) || (Constants.TSV).equals(inputFormat)) {
+			boolean isHeaderPresent = (mediaType != null) && "present".equalsIgnoreCase(mediaType.getParameter(HEADER_PARAMETER));
+			char delimiter = (Constants.TSV).equals(inputFormat) ? '\t' : ',';
+			xmlReader = new CsvInputXMLReader(delimiter, isHeaderPresent, (charset != null) ? charset : StandardCharsets.UTF_8);
+			xmlReader.setInputStreamSource(inputFile, null);
+		}
+		else {
+			throw new IllegalArgumentException("An XSL transformation input document format " + inputFormat + ", is not supported "
+					                                                                          + "by a streaming input source.");
+		}
+
+		SAXSource saxSource = new SAXSource(xmlReader, inpSource);
+		saxSource.setSystemId(systemId);
+
+		return saxSource;
+	}
+
+	/**
+	 * Method definition, to get an uploaded file's media type, or null if
+	 * an uploaded file doesn't have a valid media type.
+	 */
+	private static MediaType getMediaType(MultipartFile inputFile) {
+		String contentType = inputFile.getContentType();
+		if ((contentType == null) || "".equals(contentType.trim())) {
+			return null;
+		}
+
+		try {
+			return MediaType.parseMediaType(contentType);
+		}
+		catch (InvalidMediaTypeException ex) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,604 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.softwaredataexperts.xslt3.jfr.XslEvents;
+import com.softwaredataexperts.xslt3.jfr.XslSerializeEvent;
+
+/**
+ * A class definition, that captures XSL transformation secondary
+ * result documents (i.e, the ones produced by xsl:result-document
+ * instruction), and streams them to an api client as entries of a
+ * ZIP archive.
+ *
+ * An XSL transformation's principal result, is given a base output
+ * URI within a per transformation spool directory. Relative href
+ * values of xsl:result-document instructions are resolved against
+ * this base output URI, so that secondary result documents are
+ * written to the spool directory instead of to the server's working
+ * directory. Each spool file is copied to the ZIP output stream and
+ * deleted one at a time, so that all result documents are never held
+ * in memory together.
+ *
+ * An xsl:result-document href value must be a relative path, whose
+ * segments consist of letters, digits and the characters '_', '.' and
+ * '-', and that has no "." or ".." segments. Literal href values are
+ * checked before an XSL transformation starts. Href values that are
+ * attribute value templates are checked when they are evaluated, by
+ * few XSL instructions that are added to an XSL stylesheet before it
+ * is compiled. Thus a secondary result document cannot be written
+ * outside the spool directory. Xalan-J Redirect extension elements,
+ * that write files directly, are not permitted.
+ *
+ * The content of every xsl:result-document instruction is constructed
+ * before any of it is written, and an XSL transformation is terminated
+ * when that content's serialized length exceeds the result documents
+ * size limit. Thus one result document cannot fill the disk, since a
+ * result document that is being written cannot be stopped by this
+ * class. An xsl:result-document instruction that contains another
+ * xsl:result-document instruction, is not checked this way (its
+ * content is not constructed in advance, so that the contained
+ * instruction still runs in final output state).
+ *
+ * While an XSL transformation runs, the number and the total size of
+ * files within the spool directory are checked periodically. When a
+ * limit is exceeded, the spool directory is deleted and replaced by an
+ * ordinary file, so that no further result document can be created and
+ * the XSL transformation fails at its next xsl:result-document
+ * instruction.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslResultDocumentHandler {
+
+	private static final int COPY_BUFFER_SIZE = 8192;
+
+	private static final int SNIFF_BYTE_COUNT = 256;
+
+	private static final Pattern RESULT_DOCUMENT_HREF_PATTERN = Pattern.compile("^$|^[\\p{L}\\p{N}_.-]+(/[\\p{L}\\p{N}_.-]+)*$");
+
+	private static final Pattern DOT_SEGMENT_PATTERN = Pattern.compile("(^|/)\\.\\.?(/|$)");
+
+	private static final String HREF_VARIABLE_NAME_PREFIX = "xsl3-result-document-href-";
+
+	private static final String CONTENT_VARIABLE_NAME_PREFIX = "xsl3-result-document-content-";
+
+	/**
+	 * Max serialized length in characters, of one result document's content.
+	 */
+	private static final long RESULT_DOCUMENT_LENGTH_LIMIT = (long)(Constants.RESULT_DOCUMENTS_SIZE_LIMIT * 1024 * 1024);
+
+	/**
+	 * Namespace URIs, that Xalan-J's Redirect extension elements may be
+	 * declared with.
+	 */
+	private static final String[] REDIRECT_EXTENSION_NS_URIS = new String[] { "http://xml.apache.org/xalan/redirect", 
+			                                                                  "org.apache.xalan.lib.Redirect", 
+			                                                                  "xalan://org.apache.xalan.lib.Redirect", 
+			                                                                  "org.apache.xalan.xslt.extensions.Redirect" };
+
+	/**
+	 * An executor, that checks spool directories of all running XSL
+	 * transformations.
+	 */
+	private static final ScheduledExecutorService MONITOR_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread monitorThread = new Thread(runnable, "xsl3-result-document-monitor");
+		monitorThread.setDaemon(true);
+
+		return monitorThread;
+	});
+
+	private File m_spoolDir = null;
+
+	private ScheduledFuture<?> m_monitorFuture = null;
+
+	/**
+	 * An error message, when result documents exceeded a limit while an XSL
+	 * transformation was running.
+	 */
+	private volatile String m_limitErrorMessage = null;
+
+	private String m_stylesheetId = null;
+
+	/**
+	 * Class constructor.
+	 *
+	 * @throws IOException
+	 */
+	public XslResultDocumentHandler() throws IOException {
+		m_spoolDir = (Files.createTempDirectory(Constants.RESULT_DOCUMENT_SPOOL_DIR_PREFIX)).toFile();
+	}
+
+	/**
+	 * Method definition, to set a base output URI on an XSL transformation's
+	 * principal result.
+	 *
+	 * @param principalResult                    An XSL transformation's principal result
+	 */
+	public void setBaseOutputUri(StreamResult principalResult) {
+		File principalResultFile = new File(m_spoolDir, Constants.PRINCIPAL_RESULT_ENTRY_NAME);
+		principalResult.setSystemId(principalResultFile.toURI().toString());
+	}
+
+	/**
+	 * Method definition, to set an XSL stylesheet id, that is recorded by the
+	 * serialize event of a ZIP archive.
+	 *
+	 * @param stylesheetId                       An XSL stylesheet id
+	 */
+	public void setStylesheetId(String stylesheetId) {
+		m_stylesheetId = stylesheetId;
+	}
+
+	/**
+	 * Method definition, to check xsl:result-document href values of an XSL
+	 * stylesheet, and to add XSL instructions to an XSL stylesheet that check
+	 * href values which are attribute value templates, when they are
+	 * evaluated, and that check the size of each result document's content
+	 * before it is written.
+	 *
+	 * @param xslDocument                        An XSL stylesheet document, before it is compiled
+	 * @param xslTransformErrorHandler           An XslTransformErrorHandler object instance, to contain
+	 *                                           href error information.
+	 */
+	public void guardResultDocumentHrefs(Document xslDocument, XslTransformErrorHandler xslTransformErrorHandler) {
+		for (int idx = 0; idx < REDIRECT_EXTENSION_NS_URIS.length; idx++) {
+			if ((xslDocument.getElementsByTagNameNS(REDIRECT_EXTENSION_NS_URIS[idx], "*")).getLength() > 0) {
+				xslTransformErrorHandler.addError("Xalan-J Redirect extension elements are not permitted, when result documents "
+						                                                                   + "are returned as a ZIP archive. The instruction "
+						                                                                   + "xsl:result-document may be used instead.");
+				return;
+			}
+		}
+
+		NodeList resultDocNodeList = xslDocument.getElementsByTagNameNS(Constants.XSL_NS_URI, "result-document");
+		List<Element> resultDocElemList = new ArrayList<Element>();
+		for (int idx = 0; idx < resultDocNodeList.getLength(); idx++) {
+			resultDocElemList.add((Element)resultDocNodeList.item(idx));
+		}
+
+		for (int idx = 0; idx < resultDocElemList.size(); idx++) {
+			Element resultDocElem = resultDocElemList.get(idx);
+			if (resultDocElem.hasAttribute("_href")) {
+				xslTransformErrorHandler.addError("An xsl:result-document shadow attribute _href is not permitted, when result "
+						                                                                   + "documents are returned as a ZIP archive.");
+				continue;
+			}
+
+			if ((resultDocElem.getElementsByTagNameNS(Constants.XSL_NS_URI, "result-document")).getLength() == 0) {
+				addContentSizeCheck(resultDocElem, CONTENT_VARIABLE_NAME_PREFIX + idx);
+			}
+
+			if (!resultDocElem.hasAttribute("href")) {
+				continue;
+			}
+
+			String hrefStr = resultDocElem.getAttribute("href");
+			if (hrefStr.indexOf('{') == -1) {
+				if (!isPermittedHref(hrefStr)) {
+					xslTransformErrorHandler.addError(getHrefErrorMessage(hrefStr));
+				}
+			}
+			else {
+				addHrefCheck(resultDocElem, hrefStr, HREF_VARIABLE_NAME_PREFIX + idx);
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to start checking the number and sizes of secondary
+	 * result documents, while an XSL transformation runs.
+	 */
+	public synchronized void startMonitoring() {
+		if (m_monitorFuture == null) {
+			m_monitorFuture = MONITOR_EXECUTOR.scheduleWithFixedDelay(() -> checkLimitsWhileRunning(), Constants.RESULT_DOCUMENT_MONITOR_INTERVAL_MS, 
+					                                                  Constants.RESULT_DOCUMENT_MONITOR_INTERVAL_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Method definition, to stop checking the number and sizes of secondary
+	 * result documents.
+	 */
+	public synchronized void stopMonitoring() {
+		if (m_monitorFuture != null) {
+			m_monitorFuture.cancel(false);
+			m_monitorFuture = null;
+		}
+	}
+
+	/**
+	 * Method definition, to validate the number and sizes of secondary result
+	 * documents produced by an XSL transformation.
+	 *
+	 * @param xslTransformErrorHandler           An XslTransformErrorHandler object instance, to contain
+	 *                                           result documents limits error information.
+	 */
+	public void validateResultDocumentLimits(XslTransformErrorHandler xslTransformErrorHandler) {
+		String errorMessage = m_limitErrorMessage;
+		if (errorMessage == null) {
+			errorMessage = getLimitErrorMessage(getResultDocumentFiles());
+		}
+
+		if (errorMessage != null) {
+			xslTransformErrorHandler.addError(errorMessage);
+		}
+	}
+
+	/**
+	 * Method definition, to write an XSL transformation's principal result and
+	 * all secondary result documents, as entries of a ZIP archive. Every ZIP
+	 * entry has an entry comment, that is the serialization method detected
+	 * for that entry ("XML", "TEXT", "HTML" or "JSON").
+	 *
+	 * @param outputStream                       An output stream, to which the ZIP archive is written
+	 * @param principalResultStr                 An XSL transformation's principal result, or null
+	 *                                           if the principal result is empty
+	 * @param principalResultFormatStr           An XSL transformation's principal result format
+	 * @throws IOException
+	 */
+	public void writeZipArchive(OutputStream outputStream, String principalResultStr,
+			                                                                       String principalResultFormatStr) throws IOException {
+		ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+		XslSerializeEvent serializeEvent = new XslSerializeEvent();
+		serializeEvent.begin();
+		long writeStartTime = System.nanoTime();
+		long outputSize = 0;
+		try {
+			byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+
+			// A result document whose href value is "", is written to the principal
+			// result's base output URI, and is the principal result.
+			File principalResultFile = new File(m_spoolDir, Constants.PRINCIPAL_RESULT_ENTRY_NAME);
+			if ((principalResultStr != null) && (principalResultStr.length() > 0)) {
+				ZipEntry zipEntry = new ZipEntry(Constants.PRINCIPAL_RESULT_ENTRY_NAME);
+				zipEntry.setComment(principalResultFormatStr);
+				zipOutputStream.putNextEntry(zipEntry);
+				byte[] principalResultBytes = principalResultStr.getBytes(StandardCharsets.UTF_8);
+				zipOutputStream.write(principalResultBytes);
+				zipOutputStream.closeEntry();
+				outputSize += principalResultBytes.length;
+			}
+			else if (principalResultFile.isFile()) {
+				outputSize += writeZipEntry(zipOutputStream, Constants.PRINCIPAL_RESULT_ENTRY_NAME, principalResultFile, copyBuffer);
+			}
+
+			String spoolDirPathStr = m_spoolDir.getCanonicalPath();
+			List<File> resultDocFileList = getResultDocumentFiles();
+			for (int idx = 0; idx < resultDocFileList.size(); idx++) {
+				File resultDocFile = resultDocFileList.get(idx);
+				String entryName = (resultDocFile.getCanonicalPath()).substring(spoolDirPathStr.length() + 1);
+				entryName = entryName.replace(File.separatorChar, '/');
+
+				outputSize += writeZipEntry(zipOutputStream, entryName, resultDocFile, copyBuffer);
+			}
+
+			zipOutputStream.finish();
+		}
+		finally {
+			cleanup();
+
+			serializeEvent.end();
+			if (serializeEvent.shouldCommit()) {
+				serializeEvent.stylesheetId = m_stylesheetId;
+				serializeEvent.destination = XslEvents.DESTINATION_ZIP_ARCHIVE;
+				serializeEvent.outputMethod = principalResultFormatStr;
+				serializeEvent.outputSize = outputSize;
+				serializeEvent.writeTime = System.nanoTime() - writeStartTime;
+				serializeEvent.commit();
+			}
+		}
+	}
+
+	/**
+	 * Method definition, to delete this object's spool directory, along with
+	 * any result documents that are still present within it.
+	 */
+	public void cleanup() {
+		deleteRecursively(m_spoolDir);
+	}
+
+	/**
+	 * Method definition, to copy a spool file to a ZIP output stream as a ZIP
+	 * entry, and to delete that spool file. This returns the number of bytes
+	 * copied.
+	 */
+	private long writeZipEntry(ZipOutputStream zipOutputStream, String entryName, File resultDocFile, 
+			                                                                       byte[] copyBuffer) throws IOException {
+		ZipEntry zipEntry = new ZipEntry(entryName);
+		zipEntry.setComment(detectSerializationMethod(resultDocFile));
+		zipOutputStream.putNextEntry(zipEntry);
+		long copiedByteCount = 0;
+		InputStream inpStream = new FileInputStream(resultDocFile);
+		try {
+			int byteCount;
+			while ((byteCount = inpStream.read(copyBuffer)) != -1) {
+				zipOutputStream.write(copyBuffer, 0, byteCount);
+				copiedByteCount += byteCount;
+			}
+		}
+		finally {
+			inpStream.close();
+		}
+		zipOutputStream.closeEntry();
+		zipOutputStream.flush();
+
+		resultDocFile.delete();
+
+		return copiedByteCount;
+	}
+
+	/**
+	 * Method definition, to get a sorted list of secondary result document
+	 * files, available within the spool directory. A file written to the
+	 * principal result's base output URI, is not within this list.
+	 */
+	private List<File> getResultDocumentFiles() {
+		List<File> resultDocFileList = new ArrayList<File>();
+		collectFiles(m_spoolDir, resultDocFileList);
+		resultDocFileList.remove(new File(m_spoolDir, Constants.PRINCIPAL_RESULT_ENTRY_NAME));
+		Collections.sort(resultDocFileList);
+
+		return resultDocFileList;
+	}
+
+	/**
+	 * Method definition, to get an error message if secondary result
+	 * documents exceed the count or total size limit, or null.
+	 */
+	private String getLimitErrorMessage(List<File> resultDocFileList) {
+		if (resultDocFileList.size() > Constants.RESULT_DOCUMENT_COUNT_LIMIT) {
+			return "An XSL transformation may produce at most " + Constants.RESULT_DOCUMENT_COUNT_LIMIT + " result documents. "
+					                                            + "This XSL transformation produced " + resultDocFileList.size()
+					                                            + " result documents.";
+		}
+
+		long resultDocsByteSize = 0;
+		for (int idx = 0; idx < resultDocFileList.size(); idx++) {
+			resultDocsByteSize += (resultDocFileList.get(idx)).length();
+		}
+
+		double resultDocsMbSize = (resultDocsByteSize / (1024.0 * 1024));
+		if (resultDocsMbSize > Constants.RESULT_DOCUMENTS_SIZE_LIMIT) {
+			return "The max total size, of result documents produced by an XSL transformation can be "
+		                                                                      + Constants.RESULT_DOCUMENTS_SIZE_LIMIT + " MB.";
+		}
+
+		return null;
+	}
+
+	/**
+	 * Method definition, to check the number and sizes of secondary result
+	 * documents while an XSL transformation runs. When a limit is exceeded,
+	 * the spool directory is replaced by an ordinary file, so that an XSL
+	 * transformation cannot create further result documents.
+	 */
+	private synchronized void checkLimitsWhileRunning() {
+		if ((m_monitorFuture == null) || (m_limitErrorMessage != null)) {
+			return;
+		}
+
+		String errorMessage = getLimitErrorMessage(getResultDocumentFiles());
+		if (errorMessage != null) {
+			m_limitErrorMessage = errorMessage;
+			deleteRecursively(m_spoolDir);
+			try {
+				m_spoolDir.createNewFile();
+			}
+			catch (IOException ex) {
+				// no op
+			}
+
+			m_monitorFuture.cancel(false);
+		}
+	}
+
+	/**
+	 * Method definition, to add XSL instructions before an xsl:result-document
+	 * instruction, that evaluate its href attribute value template, and that
+	 * terminate an XSL transformation if that href value is not permitted.
+	 * The xsl:result-document instruction then uses the evaluated href value.
+	 */
+	private void addHrefCheck(Element resultDocElem, String hrefAvtStr, String varName) {
+		Document xslDocument = resultDocElem.getOwnerDocument();
+		String xslPrefix = resultDocElem.getPrefix();
+		String xslQNamePrefix = ((xslPrefix != null) && !"".equals(xslPrefix)) ? (xslPrefix + ":") : "";
+		String hrefValueExpr = "string($" + varName + "/*/@value)";
+
+		// A literal result element's attribute value template, is evaluated
+		// the same way as the xsl:result-document href attribute value template.
+		Element varElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "variable");
+		varElem.setAttribute("name", varName);
+		Element hrefElem = xslDocument.createElementNS(null, "href");
+		hrefElem.setAttribute("value", hrefAvtStr);
+		varElem.appendChild(hrefElem);
+
+		Element ifElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "if");
+		ifElem.setAttribute("test", "not(matches(" + hrefValueExpr + ", '" + RESULT_DOCUMENT_HREF_PATTERN.pattern() + "')) or matches("
+				                                                   + hrefValueExpr + ", '" + DOT_SEGMENT_PATTERN.pattern() + "')");
+		Element messageElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "message");
+		messageElem.setAttribute("terminate", "yes");
+		messageElem.appendChild(xslDocument.createTextNode("An xsl:result-document href value '"));
+		Element valueOfElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "value-of");
+		valueOfElem.setAttribute("select", hrefValueExpr);
+		messageElem.appendChild(valueOfElem);
+		messageElem.appendChild(xslDocument.createTextNode("', is not permitted. " + getPermittedHrefDescription()));
+		ifElem.appendChild(messageElem);
+
+		(resultDocElem.getParentNode()).insertBefore(varElem, resultDocElem);
+		(resultDocElem.getParentNode()).insertBefore(ifElem, resultDocElem);
+		resultDocElem.setAttribute("href", "{" + hrefValueExpr + "}");
+	}
+
+	/**
+	 * Method definition, to move the content of an xsl:result-document
+	 * instruction into a variable, and to add XSL instructions that
+	 * terminate an XSL transformation if that variable's serialized length
+	 * exceeds the result documents size limit, before the variable's value
+	 * is written as the result document.
+	 */
+	private void addContentSizeCheck(Element resultDocElem, String varName) {
+		Document xslDocument = resultDocElem.getOwnerDocument();
+		String xslPrefix = resultDocElem.getPrefix();
+		String xslQNamePrefix = ((xslPrefix != null) && !"".equals(xslPrefix)) ? (xslPrefix + ":") : "";
+
+		// The content is kept as a sequence, so that the xsl:result-document
+		// instruction gets the same items as it does without this check.
+		Element varElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "variable");
+		varElem.setAttribute("name", varName);
+		varElem.setAttribute("as", "item()*");
+		while (resultDocElem.getFirstChild() != null) {
+			varElem.appendChild(resultDocElem.getFirstChild());
+		}
+
+		String serializeExpr = "json".equals(resultDocElem.getAttribute("method")) ? ("serialize($" + varName + ", map{'method' : 'json'})")
+				                                                                   : ("serialize($" + varName + ")");
+		Element ifElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "if");
+		ifElem.setAttribute("test", "string-length(" + serializeExpr + ") gt " + RESULT_DOCUMENT_LENGTH_LIMIT);
+		Element messageElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "message");
+		messageElem.setAttribute("terminate", "yes");
+		messageElem.appendChild(xslDocument.createTextNode("The max total size, of result documents produced by an XSL transformation "
+				                                                                   + "can be " + Constants.RESULT_DOCUMENTS_SIZE_LIMIT + " MB. "
+				                                                                   + "An xsl:result-document instruction's content exceeds "
+				                                                                   + "this size."));
+		ifElem.appendChild(messageElem);
+
+		Element seqElem = xslDocument.createElementNS(Constants.XSL_NS_URI, xslQNamePrefix + "sequence");
+		seqElem.setAttribute("select", "$" + varName);
+
+		resultDocElem.appendChild(varElem);
+		resultDocElem.appendChild(ifElem);
+		resultDocElem.appendChild(seqElem);
+	}
+
+	private boolean isPermittedHref(String hrefStr) {
+		return (RESULT_DOCUMENT_HREF_PATTERN.matcher(hrefStr)).matches() && !(DOT_SEGMENT_PATTERN.matcher(hrefStr)).find();
+	}
+
+	private String getHrefErrorMessage(String hrefStr) {
+		return "An xsl:result-document href value '" + hrefStr + "', is not permitted. " + getPermittedHrefDescription();
+	}
+
+	private String getPermittedHrefDescription() {
+		return "An href value must be a relative path, whose segments consist of letters, digits and the characters '_', "
+				                                                                     + "'.' and '-', and that has no '.' or '..' segments.";
+	}
+
+	private void collectFiles(File dir, List<File> fileList) {
+		File[] fileArr = dir.listFiles();
+		if (fileArr != null) {
+			for (int idx = 0; idx < fileArr.length; idx++) {
+				File file = fileArr[idx];
+				if (file.isDirectory()) {
+					collectFiles(file, fileList);
+				}
+				else {
+					fileList.add(file);
+				}
+			}
+		}
+	}
+
+	private void deleteRecursively(File file) {
+		File[] fileArr = file.listFiles();
+		if (fileArr != null) {
+			for (int idx = 0; idx < fileArr.length; idx++) {
+				deleteRecursively(fileArr[idx]);
+			}
+		}
+
+		file.delete();
+	}
+
+	/**
+	 * Method definition, to detect a serialization method of a result
+	 * document. A result document's file name extension is examined first,
+	 * and if that is not conclusive, few initial bytes of the result
+	 * document are examined.
+	 *
+	 * @param resultDocFile                      A result document file
+	 * @return                                   One of the string values "XML", "TEXT",
+	 *                                           "HTML" or "JSON"
+	 * @throws IOException
+	 */
+	private String detectSerializationMethod(File resultDocFile) throws IOException {
+		String fileNameStr = (resultDocFile.getName()).toLowerCase();
+		if (fileNameStr.endsWith(".html") || fileNameStr.endsWith(".htm") || fileNameStr.endsWith(".xhtml")) {
+			return Constants.HTML;
+		}
+		else if (fileNameStr.endsWith(".json")) {
+			return Constants.JSON;
+		}
+		else if (fileNameStr.endsWith(".xml")) {
+			return Constants.XML;
+		}
+		else if (fileNameStr.endsWith(".txt") || fileNameStr.endsWith(".csv")) {
+			return Constants.TEXT;
+		}
+
+		byte[] sniffBytes = new byte[SNIFF_BYTE_COUNT];
+		int byteCount = 0;
+		InputStream inpStream = new FileInputStream(resultDocFile);
+		try {
+			int readCount;
+			while ((byteCount < SNIFF_BYTE_COUNT) && ((readCount = inpStream.read(sniffBytes, byteCount, SNIFF_BYTE_COUNT - byteCount)) != -1)) {
+				byteCount += readCount;
+			}
+		}
+		finally {
+			inpStream.close();
+		}
+
+		String prefixStr = ((new String(sniffBytes, 0, byteCount, StandardCharsets.UTF_8)).trim()).toLowerCase();
+		if (prefixStr.startsWith("<!doctype html") || prefixStr.startsWith("<html")) {
+			return Constants.HTML;
+		}
+		else if (prefixStr.startsWith("<")) {
+			return Constants.XML;
+		}
+		else if (prefixStr.startsWith("{") || prefixStr.startsWith("[")) {
+			return Constants.JSON;
+		}
+
+		return Constants.TEXT;
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import com.softwaredataexperts.xslt3.jfr.XslEvents;
+import com.softwaredataexperts.xslt3.jfr.XslSerializeEvent;
+
+/**
+ * A class definition, of a character stream to which an XSL transformation's
+ * principal result is serialized, that records this serialization as an
+ * XslSerializeEvent.
+ * 
+ * The serialize event begins when the first character is written. Time
+ * spent within writes is measured only when the serialize event is enabled
+ * by a JDK Flight Recorder recording, since the serializer may write few
+ * characters at a time.
+ * 
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslSerializeWriter extends FilterWriter {
+	
+	private XslSerializeEvent m_serializeEvent = new XslSerializeEvent();
+	
+	private boolean m_isTimed = false;
+	
+	private long m_charCount = 0;
+	
+	private long m_writeNanos = 0;
+	
+	/**
+	 * Class constructor.
+	 * 
+	 * @param writer                             A character stream, to which serialized
+	 *                                           characters are written
+	 */
+	public XslSerializeWriter(Writer writer) {
+		super(writer);
+		m_isTimed = m_serializeEvent.isEnabled();
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		long writeStartTime = beforeWrite();
+		out.write(c);
+		afterWrite(writeStartTime, 1);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		long writeStartTime = beforeWrite();
+		out.write(cbuf, off, len);
+		afterWrite(writeStartTime, len);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		long writeStartTime = beforeWrite();
+		out.write(str, off, len);
+		afterWrite(writeStartTime, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		long writeStartTime = m_isTimed ? System.nanoTime() : 0;
+		out.flush();
+		afterWrite(writeStartTime, 0);
+	}
+	
+	/**
+	 * Method definition, to end and commit this object's serialize event, if
+	 * any character has been written. This is called, when an XSL transformation
+	 * ends.
+	 * 
+	 * @param stylesheetId                       An XSL stylesheet id
+	 * @param outputMethod                       An XSL transformation's output method
+	 */
+	public void commitSerializeEvent(String stylesheetId, String outputMethod) {
+		if (m_charCount == 0) {
+			return;
+		}
+		
+		m_serializeEvent.end();
+		if (m_serializeEvent.shouldCommit()) {
+			m_serializeEvent.stylesheetId = stylesheetId;
+			m_serializeEvent.destination = XslEvents.DESTINATION_PRINCIPAL_RESULT;
+			m_serializeEvent.outputMethod = outputMethod;
+			m_serializeEvent.outputSize = m_charCount;
+			m_serializeEvent.writeTime = m_writeNanos;
+			m_serializeEvent.commit();
+		}
+	}
+	
+	private long beforeWrite() {
+		if (m_charCount == 0) {
+			m_serializeEvent.begin();
+		}
+		
+		return m_isTimed ? System.nanoTime() : 0;
+	}
+	
+	private void afterWrite(long writeStartTime, int charCount) {
+		if (m_isTimed) {
+			m_writeNanos += (System.nanoTime() - writeStartTime);
+		}
+		m_charCount += charCount;
+	}
+
+}
@@ -17,7 +17,12 @@
 package com.softwaredataexperts.xslt3.util;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.xml.transform.SourceLocator;
 import javax.xml.transform.TransformerException;
@@ -26,48 +31,121 @@ import org.apache.xml.utils.DefaultErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import com.softwaredataexperts.xslt3.model.XslDiagnostic;
+
 /**
  * A class definition, specifying Xalan-J XSL transformation error 
  * handler.
  * 
+ * Errors are stored as XslDiagnostic objects. An error that is identical 
+ * to an earlier error (i.e, it has the same severity, location, error code 
+ * and message), only increments the earlier error's count. At most a 
+ * configured number of distinct errors are stored, and further distinct 
+ * errors are only counted, so that an XSL stylesheet that reports an error 
+ * for each node of a large input document, doesn't exhaust heap memory. 
+ * 
+ * When a fail fast error count is configured, an XSL transformation is 
+ * stopped when that many errors have been reported.
+ * 
  * @author Mukul Gandhi <gandhi.mukul@gmail.com> 
  */
 public class XslTransformErrorHandler extends DefaultErrorHandler {
+	
+	/**
+	 * An XPath or XSLT error code, at the start of an error message 
+	 * (for example, "XPTY0004 : ...").
+	 */
+	private static final Pattern ERROR_CODE_PATTERN = Pattern.compile("^\\s*(?:err:)?([A-Z]{4}[0-9]{4})\\b");
     
-    private List<String> trfErrorList = new ArrayList<String>();
-    
-    private List<String> trfFatalErrorList = new ArrayList<String>();
+	private final int m_maxDistinctErrors;
+	
+	private final int m_maxMessageLength;
+	
+	/**
+	 * Number of errors, after which an XSL transformation is stopped. 
+	 * The value 0 means, that an XSL transformation is not stopped 
+	 * because of errors reported to this error handler.
+	 */
+	private final int m_failFastErrorCount;
+	
+	private final List<XslDiagnostic> m_diagnosticList = new ArrayList<XslDiagnostic>();
+	
+	private final Map<DiagnosticKey, XslDiagnostic> m_diagnosticMap = new HashMap<DiagnosticKey, XslDiagnostic>();
+	
+	/**
+	 * A key object reused for map lookups, so that a repeated error 
+	 * doesn't construct a new key object. A repeated error doesn't 
+	 * retain any new object, but its message is still constructed 
+	 * (and possibly truncated) before the lookup.
+	 */
+	private final DiagnosticKey m_lookupKey = new DiagnosticKey();
+	
+	private long m_errorCount = 0;
+	
+	private long m_droppedErrorCount = 0;
+	
+	private boolean m_stoppedOnError = false;
     
     /**
      * Class constructor.
      */
     public XslTransformErrorHandler() {
+    	this(Constants.MAX_DISTINCT_ERRORS, Constants.MAX_ERROR_MESSAGE_LENGTH, 0);
+    }
+    
+    /**
+     * Class constructor.
+     * 
+     * @param maxDistinctErrors                  Max number of distinct errors that are stored
+     * @param maxMessageLength                   Max length of a stored error message. A longer error
+     *                                           message is truncated.
+     * @param failFastErrorCount                 Number of errors, after which an XSL transformation is
+     *                                           stopped, or 0
+     */
+    public XslTransformErrorHandler(int maxDistinctErrors, int maxMessageLength, int failFastErrorCount) {
     	super(true);
+    	this.m_maxDistinctErrors = maxDistinctErrors;
+    	this.m_maxMessageLength = maxMessageLength;
+    	this.m_failFastErrorCount = failFastErrorCount;
     }
 
     @Override
-    public void error(TransformerException ex) throws TransformerException {            	    	
-    	SourceLocator srcLocator = ex.getLocator();
+    public void error(TransformerException ex) throws TransformerException {
+    	if (m_stoppedOnError) {
+    		throw ex;
+    	}
     	
-    	int errLineNo = srcLocator.getLineNumber();
-    	int errColNo = srcLocator.getColumnNumber();    	
-    	String errMesg = ex.getMessage();
-        
-    	trfErrorList.add("[Error : line " + errLineNo + ", column " + errColNo + "] " + errMesg);
+    	SourceLocator srcLocator = ex.getLocator();
+    	if (srcLocator != null) {
+    		addDiagnostic(XslDiagnostic.SEVERITY_ERROR, srcLocator.getLineNumber(), srcLocator.getColumnNumber(), 
+    				                                                         srcLocator.getSystemId(), ex.getMessage());
+    	}
+    	else {
+    		addDiagnostic(XslDiagnostic.SEVERITY_ERROR, -1, -1, null, ex.getMessage());
+    	}
     	
-    	trfErrorList.add(errMesg);
+    	if (isFailFastErrorCountReached()) {
+    		m_stoppedOnError = true;
+    		
+    		throw ex;
+    	}
     }
 
     @Override
-    public void fatalError(TransformerException ex) throws TransformerException {        
-    	SourceLocator srcLocator = ex.getLocator();    	    	    	
+    public void fatalError(TransformerException ex) throws TransformerException {
+    	if (m_stoppedOnError) {
+    		// a fatal error reported, for an error with which this error handler stopped an XSL transformation
+    		return;
+    	}
     	
-    	int errLineNo = srcLocator.getLineNumber();
-    	int errColNo = srcLocator.getColumnNumber();    	
-    	String errMesg = ex.getMessage();
-        
-        trfFatalErrorList.add("[Fatal error : line " + errLineNo + ", column " + errColNo + "] " + errMesg);
-    	trfFatalErrorList.add(errMesg);
+    	SourceLocator srcLocator = ex.getLocator();
+    	if (srcLocator != null) {
+    		addDiagnostic(XslDiagnostic.SEVERITY_FATAL_ERROR, srcLocator.getLineNumber(), srcLocator.getColumnNumber(), 
+    				                                                               srcLocator.getSystemId(), ex.getMessage());
+    	}
+    	else {
+    		addDiagnostic(XslDiagnostic.SEVERITY_FATAL_ERROR, -1, -1, null, ex.getMessage());
+    	}
     }
 
     @Override
@@ -76,23 +154,27 @@ public class XslTransformErrorHandler extends DefaultErrorHandler {
     }
 
     @Override
-    public void error(SAXParseException ex) throws SAXException {        
-    	String errMesg = ex.getMessage();
+    public void error(SAXParseException ex) throws SAXException {
+    	if (m_stoppedOnError) {
+    		throw ex;
+    	}
     	
-    	int errLineNo = ex.getLineNumber();
-    	int errColNo = ex.getColumnNumber();
+    	addDiagnostic(XslDiagnostic.SEVERITY_ERROR, ex.getLineNumber(), ex.getColumnNumber(), ex.getSystemId(), ex.getMessage());
     	
-    	trfErrorList.add("[Error : line " + errLineNo + ", column " + errColNo + "] " + errMesg);
+    	if (isFailFastErrorCountReached()) {
+    		m_stoppedOnError = true;
+    		
+    		throw ex;
+    	}
     }
 
     @Override
-    public void fatalError(SAXParseException ex) throws SAXException {        
-    	String errMesg = ex.getMessage();
-    	
-        int errLineNo = ex.getLineNumber();
-    	int errColNo = ex.getColumnNumber();
+    public void fatalError(SAXParseException ex) throws SAXException {
+    	if (m_stoppedOnError) {
+    		return;
+    	}
     	
-        trfErrorList.add("[Fatal error : line " + errLineNo + ", column " + errColNo + "] " + errMesg); 
+    	addDiagnostic(XslDiagnostic.SEVERITY_FATAL_ERROR, ex.getLineNumber(), ex.getColumnNumber(), ex.getSystemId(), ex.getMessage());
     }
 
     @Override
@@ -100,12 +182,138 @@ public class XslTransformErrorHandler extends DefaultErrorHandler {
         // no op       
     }
     
-    public List<String> getTrfErrorList() {
-        return trfErrorList;  
+    /**
+     * Method definition, to add an error that doesn't have a location 
+     * (for example, an api request validation error).
+     * 
+     * @param errMesg                            An error message
+     */
+    public void addError(String errMesg) {
+    	addDiagnostic(XslDiagnostic.SEVERITY_ERROR, -1, -1, null, errMesg);
+    }
+    
+    /**
+     * Method definition, to store an error, or to increment the count of 
+     * an identical error stored earlier.
+     */
+    private synchronized void addDiagnostic(String severity, int lineNo, int colNo, String systemId, String errMesg) {
+    	m_errorCount++;
+    	
+    	if ((errMesg != null) && (errMesg.length() > m_maxMessageLength)) {
+    		errMesg = errMesg.substring(0, m_maxMessageLength) + "...";
+    	}
+    	
+    	m_lookupKey.set(severity, lineNo, colNo, systemId, errMesg);
+    	XslDiagnostic xslDiagnostic = m_diagnosticMap.get(m_lookupKey);
+    	if (xslDiagnostic != null) {
+    		xslDiagnostic.setCount(xslDiagnostic.getCount() + 1);
+    		
+    		return;
+    	}
+    	
+    	if (m_diagnosticList.size() >= m_maxDistinctErrors) {
+    		m_droppedErrorCount++;
+    		
+    		return;
+    	}
+    	
+    	xslDiagnostic = new XslDiagnostic(severity, errMesg);
+    	xslDiagnostic.setLineNumber(lineNo);
+    	xslDiagnostic.setColumnNumber(colNo);
+    	xslDiagnostic.setSystemId(systemId);
+    	if (errMesg != null) {
+    		Matcher errCodeMatcher = ERROR_CODE_PATTERN.matcher(errMesg);
+    		if (errCodeMatcher.find()) {
+    			xslDiagnostic.setErrorCode(errCodeMatcher.group(1));
+    		}
+    	}
+    	
+    	DiagnosticKey diagnosticKey = new DiagnosticKey();
+    	diagnosticKey.set(severity, lineNo, colNo, systemId, errMesg);
+    	m_diagnosticMap.put(diagnosticKey, xslDiagnostic);
+    	m_diagnosticList.add(xslDiagnostic);
+    }
+    
+    private boolean isFailFastErrorCountReached() {
+    	return (m_failFastErrorCount > 0) && (m_errorCount >= m_failFastErrorCount);
     }
     
-    public List<String> getTrfFatalErrorList() {
-        return trfFatalErrorList;  
+    /**
+     * Method definition, to check whether any error has been reported to 
+     * this error handler.
+     */
+    public synchronized boolean hasErrors() {
+    	return (m_errorCount > 0);
+    }
+    
+    /**
+     * Method definition, to get the distinct errors stored by this error 
+     * handler, in the order they first occurred.
+     */
+    public synchronized List<XslDiagnostic> getDiagnosticList() {
+    	return new ArrayList<XslDiagnostic>(m_diagnosticList);
+    }
+    
+    public synchronized long getErrorCount() {
+    	return m_errorCount;
+    }
+    
+    public synchronized long getDroppedErrorCount() {
+    	return m_droppedErrorCount;
+    }
+    
+    public synchronized boolean isStoppedOnError() {
+    	return m_stoppedOnError;
+    }
+    
+    /**
+     * A class definition, that is a map key identifying distinct errors.
+     */
+    private static class DiagnosticKey {
+    	
+    	private String m_severity = null;
+    	
+    	private int m_lineNumber = -1;
+    	
+    	private int m_columnNumber = -1;
+    	
+    	private String m_systemId = null;
+    	
+    	private String m_message = null;
+    	
+    	private void set(String severity, int lineNo, int colNo, String systemId, String errMesg) {
+    		this.m_severity = severity;
+    		this.m_lineNumber = lineNo;
+    		this.m_columnNumber = colNo;
+    		this.m_systemId = systemId;
+    		this.m_message = errMesg;
+    	}
+    	
+    	@Override
+    	public boolean equals(Object obj) {
+    		if (!(obj instanceof DiagnosticKey)) {
+    			return false;
+    		}
+    		
+    		DiagnosticKey diagnosticKey = (DiagnosticKey)obj;
+    		
+    		return (m_lineNumber == diagnosticKey.m_lineNumber) && (m_columnNumber == diagnosticKey.m_columnNumber) 
+    				                                            && Objects.equals(m_severity, diagnosticKey.m_severity) 
+    				                                            && Objects.equals(m_systemId, diagnosticKey.m_systemId) 
+    				                                            && Objects.equals(m_message, diagnosticKey.m_message);
+    	}
+    	
+    	@Override
+    	public int hashCode() {
+    		int hashCode = Objects.hashCode(m_severity);
+    		hashCode = (31 * hashCode) + m_lineNumber;
+    		hashCode = (31 * hashCode) + m_columnNumber;
+    		hashCode = (31 * hashCode) + Objects.hashCode(m_systemId);
+    		hashCode = (31 * hashCode) + Objects.hashCode(m_message);
+    		
+    		return hashCode;
+    	}
+    	
     }
 
 }
@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.softwaredataexperts.xslt3.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * A class definition, that holds all inputs of one XSL transformation
+ * api request (i.e, stylesheet, XML input document, auxiliary document
+ * and XSL transformation options), and that can read and write these
+ * inputs to a directory.
+ *
+ * Within a directory, a file "request.properties" contains the
+ * XSL transformation options and the original names of uploaded
+ * files. Each uploaded file is stored with a fixed name specific to
+ * its role (i.e, "stylesheet.xsl", "input" and "aux"), so that uploaded
+ * files having the same original name do not overwrite each other.
+ * The original names are restored when a record is read, since
+ * stylesheets may refer to an auxiliary document by its name.
+ *
+ * @author Mukul Gandhi <gandhi.mukul@gmail.com>
+ */
+public class XslTransformRequestRecord {
+
+	public static final String REQUEST_PROPERTIES_FILE_NAME = "request.properties";
+
+	public static final String XML_FILE_KEY = "xml_file";
+
+	/**
+	 * An uploaded XML input document's media type, that selects the input
+	 * document's format (i.e, XML, JSON, CSV or TSV).
+	 */
+	public static final String XML_FILE_CONTENT_TYPE_KEY = "xml_file.content_type";
+
+	public static final String XSL_FILE_KEY = "xsl_file";
+
+	public static final String AUX_FILE_KEY = "aux_file";
+
+	public static final String INIT_TEMPLATE_KEY = "init_template";
+
+	public static final String INIT_MODE_KEY = "init_mode";
+
+	public static final String ENABLE_ASSERT_KEY = "enable_assert";
+
+	public static final String ENABLE_XSL_EVALUATE_KEY = "enable_xsl_evaluate";
+
+	public static final String XSL_FILE_STORED_NAME = "stylesheet.xsl";
+
+	public static final String XML_FILE_STORED_NAME = "input";
+
+	public static final String AUX_FILE_STORED_NAME = "aux";
+
+	private String m_xslFileName = null;
+
+	private byte[] m_xslFileBytes = null;
+
+	private String m_xmlFileName = null;
+
+	private byte[] m_xmlFileBytes = null;
+
+	private String m_auxFileName = null;
+
+	private byte[] m_auxFileBytes = null;
+
+	/**
+	 * XSL transformation options, and any other additional information
+	 * stored along with the request.
+	 */
+	private Properties m_properties = new Properties();
+
+	/**
+	 * Method definition, to read an XSL transformation request record from
+	 * a directory.
+	 *
+	 * @param recordDir                          A directory containing an XSL transformation
+	 *                                           request record
+	 * @return                                   XslTransformRequestRecord object instance
+	 * @throws IOException
+	 */
+	public static XslTransformRequestRecord read(File recordDir) throws IOException {
+		XslTransformRequestRecord requestRecord = new XslTransformRequestRecord();
+
+		InputStream inpStream = new FileInputStream(new File(recordDir, REQUEST_PROPERTIES_FILE_NAME));
+		try {
+			(requestRecord.m_properties).load(inpStream);
+		}
+		finally {
+			inpStream.close();
+		}
+
+		Properties properties = requestRecord.m_properties;
+
+		requestRecord.m_xslFileName = getSafeFileName(properties.getProperty(XSL_FILE_KEY), null);
+		if (requestRecord.m_xslFileName == null) {
+			throw new IOException("An XSL transformation request record " + recordDir + ", doesn't specify an XSL stylesheet.");
+		}
+		requestRecord.m_xslFileBytes = Files.readAllBytes((new File(recordDir, XSL_FILE_STORED_NAME)).toPath());
+
+		requestRecord.m_xmlFileName = getSafeFileName(properties.getProperty(XML_FILE_KEY), null);
+		if (requestRecord.m_xmlFileName != null) {
+			requestRecord.m_xmlFileBytes = Files.readAllBytes((new File(recordDir, XML_FILE_STORED_NAME)).toPath());
+		}
+
+		requestRecord.m_auxFileName = getSafeFileName(properties.getProperty(AUX_FILE_KEY), null);
+		if (requestRecord.m_auxFileName != null) {
+			requestRecord.m_auxFileBytes = Files.readAllBytes((new File(recordDir, AUX_FILE_STORED_NAME)).toPath());
+		}
+
+		return requestRecord;
+	}
+
+	/**
+	 * Method definition, to write this XSL transformation request record to
+	 * a directory.
+	 *
+	 * @param recordDir                          A directory, to which this record is written
+	 * @throws IOException
+	 */
+	public void write(File recordDir) throws IOException {
+		if (!recordDir.isDirectory() && !recordDir.mkdirs()) {
+			throw new IOException("Cannot create directory " + recordDir + ".");
+		}
+
+		writeFile(recordDir, XSL_FILE_STORED_NAME, m_xslFileBytes);
+		writeFile(recordDir, XML_FILE_STORED_NAME, m_xmlFileBytes);
+		writeFile(recordDir, AUX_FILE_STORED_NAME, m_auxFileBytes);
+
+		OutputStream outStream = new FileOutputStream(new File(recordDir, REQUEST_PROPERTIES_FILE_NAME));
+		try {
+			m_properties.store(outStream, null);
+		}
+		finally {
+			outStream.close();
+		}
+	}
+
+	private void writeFile(File recordDir, String fileName, byte[] fileBytes) throws IOException {
+		if (fileBytes != null) {
+			Files.write((new File(recordDir, fileName)).toPath(), fileBytes);
+		}
+	}
+
+	/**
+	 * Method definition, to get a name that is safe to be used as a file name
+	 * (for e.g, by the auxiliary document's file written during an XSL
+	 * transformation), for an uploaded file's original name.
+	 */
+	private static String getSafeFileName(String fileName, String defaultFileName) {
+		if ((fileName == null) || "".equals(fileName)) {
+			return defaultFileName;
+		}
+
+		String safeFileName = (new File(fileName)).getName();
+		if ("".equals(safeFileName) || ".".equals(safeFileName) || "..".equals(safeFileName)) {
+			return defaultFileName;
+		}
+
+		return safeFileName;
+	}
+
+	public String getXslFileName() {
+		return m_xslFileName;
+	}
+
+	public byte[] getXslFileBytes() {
+		return m_xslFileBytes;
+	}
+
+	public void setXslFile(String xslFileName, byte[] xslFileBytes) {
+		this.m_xslFileName = getSafeFileName(xslFileName, "stylesheet.xsl");
+		this.m_xslFileBytes = xslFileBytes;
+		m_properties.setProperty(XSL_FILE_KEY, m_xslFileName);
+	}
+
+	public String getXmlFileName() {
+		return m_xmlFileName;
+	}
+
+	public byte[] getXmlFileBytes() {
+		return m_xmlFileBytes;
+	}
+
+	public void setXmlFile(String xmlFileName, byte[] xmlFileBytes) {
+		this.m_xmlFileName = getSafeFileName(xmlFileName, "input.xml");
+		this.m_xmlFileBytes = xmlFileBytes;
+		m_properties.setProperty(XML_FILE_KEY, m_xmlFileName);
+	}
+
+	public String getAuxFileName() {
+		return m_auxFileName;
+	}
+
+	public byte[] getAuxFileBytes() {
+		return m_auxFileBytes;
+	}
+
+	public void setAuxFile(String auxFileName, byte[] auxFileBytes) {
+		this.m_auxFileName = getSafeFileName(auxFileName, "aux_file");
+		this.m_auxFileBytes = auxFileBytes;
+		m_properties.setProperty(AUX_FILE_KEY, m_auxFileName);
+	}
+
+	/**
+	 * Method definition, to get an XSL transformation option, or any other
+	 * additional information stored along with the request.
+	 *
+	 * @param key                                A property key
+	 * @return                                   A property value, or null
+	 */
+	public String getProperty(String key) {
+		return m_properties.getProperty(key);
+	}
+
+	/**
+	 * Method definition, to set an XSL transformation option, or any other
+	 * additional information to be stored along with the request. A null
+	 * value removes the property.
+	 *
+	 * @param key                                A property key
+	 * @param value                              A property value
+	 */
+	public void setProperty(String key, String value) {
+		if (value == null) {
+			m_properties.remove(key);
+		}
+		else {
+			m_properties.setProperty(key, value);
+		}
+	}
+
+}